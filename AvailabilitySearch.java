@@ -0,0 +1,120 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * The AvailabilitySearch class quotes a stay in every hotel of a HotelTracker in parallel.
+ * The hotels are split in halves with fork-join until a range is small enough to quote sequentially.
+ * Hotels without a free room of the requested type are left out of the result.
+ * When a result limit is set, the search keeps a bound: the smallest hotel index before which
+ * some finished range already found the limit of available hotels. Hotels at or after the bound
+ * cannot be among the first available hotels, so ranges and hotels from the bound on are skipped,
+ * while every hotel before it is still quoted. The first results are thus always the first
+ * available hotels in hotel order, however the tasks are scheduled.
+ */
+public class AvailabilitySearch extends RecursiveTask<ArrayList<Quote>> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int SEQUENTIAL_THRESHOLD = 8; // Hotels quoted by one task without splitting
+
+    private final HotelTracker tracker;
+    private final Hotel[] hotels;
+    private final int from;
+    private final int to;
+    private final int checkInDate;
+    private final int checkOutDate;
+    private final int roomType;
+    private final String discountCode;
+    private final int limit;
+    private final AtomicInteger bound; // Hotels from this index on are not needed, shared by every task
+    private int[] indexes; // The hotel index of each result, set by compute
+
+    /**
+     * Constructs a search over all the given hotels.
+     *
+     * @param tracker The tracker used to quote each hotel.
+     * @param hotels The hotels to search.
+     * @param checkInDate The check-in date of the stay.
+     * @param checkOutDate The check-out date of the stay.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to quote, or null to find the best discount.
+     * @param limit The number of results after which the search stops, or 0 for no limit.
+     */
+    public AvailabilitySearch(HotelTracker tracker, Hotel[] hotels, int checkInDate, int checkOutDate,
+            int roomType, String discountCode, int limit) {
+        this(tracker, hotels, 0, hotels.length, checkInDate, checkOutDate, roomType, discountCode, limit,
+                new AtomicInteger(hotels.length));
+    }
+
+    /**
+     * Constructs a search over a range of the hotels, sharing the bound with the parent search.
+     */
+    private AvailabilitySearch(HotelTracker tracker, Hotel[] hotels, int from, int to, int checkInDate,
+            int checkOutDate, int roomType, String discountCode, int limit, AtomicInteger bound) {
+        this.tracker = tracker;
+        this.hotels = hotels;
+        this.from = from;
+        this.to = to;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.roomType = roomType;
+        this.discountCode = discountCode;
+        this.limit = limit;
+        this.bound = bound;
+    }
+
+    /**
+     * Quotes the hotels of this range, splitting it if it is too large.
+     *
+     * @return The quotes of the hotels with a free room, in hotel order.
+     */
+    @Override
+    protected ArrayList<Quote> compute() {
+        ArrayList<Quote> results = new ArrayList<Quote>();
+        if (from >= bound.get()) {
+            indexes = new int[0]; // Every hotel of the range comes after enough results
+            return results;
+        }
+
+        if (to - from <= SEQUENTIAL_THRESHOLD) {
+            int[] found = new int[to - from];
+            for (int i = from; i < to && i < bound.get(); i++) {
+                Quote quote = tracker.quoteHotel(hotels[i], checkInDate, checkOutDate, roomType, discountCode);
+                if (quote != null && quote.isAvailable()) {
+                    found[results.size()] = i;
+                    results.add(quote);
+                }
+            }
+            indexes = Arrays.copyOf(found, results.size());
+            lowerBound();
+            return results;
+        }
+
+        int middle = (from + to) >>> 1;
+        AvailabilitySearch left = new AvailabilitySearch(tracker, hotels, from, middle, checkInDate, checkOutDate,
+                roomType, discountCode, limit, bound);
+        AvailabilitySearch right = new AvailabilitySearch(tracker, hotels, middle, to, checkInDate, checkOutDate,
+                roomType, discountCode, limit, bound);
+        right.fork();
+        results = left.compute();
+        results.addAll(right.join());
+
+        indexes = Arrays.copyOf(left.indexes, left.indexes.length + right.indexes.length);
+        System.arraycopy(right.indexes, 0, indexes, left.indexes.length, right.indexes.length);
+        lowerBound();
+        return results;
+    }
+
+    /**
+     * Lowers the bound to just after the limit-th result of this range, if the range has that many.
+     * The range was searched up to the bound, so its first results are the first available hotels
+     * of the range, and no hotel after the limit-th of them can be among the first of all hotels.
+     */
+    private void lowerBound() {
+        if (limit > 0 && indexes.length >= limit) {
+            bound.accumulateAndGet(indexes[limit - 1] + 1, Math::min);
+        }
+    }
+}
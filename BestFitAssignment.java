@@ -0,0 +1,47 @@
+import java.util.List;
+
+
+/**
+ * The BestFitAssignment class assigns a stay to the free room whose gap of free nights around the stay
+ * is the smallest. Filling tight gaps first keeps long runs of free nights intact for later multi-night stays,
+ * instead of leaving scattered single nights that nobody can book.
+ */
+public class BestFitAssignment implements RoomAssignmentStrategy {
+
+    @Override
+    public Room selectRoom(List<Room> rooms, int roomType, int checkInDate, int checkOutDate) {
+        int stay = Room.nightMask(checkInDate, checkOutDate);
+        Room bestRoom = null;
+        int bestWaste = Integer.MAX_VALUE;
+
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            int booked = room.getBookedMask();
+            if (room.getRoomType() != roomType || (booked & stay) != 0) {
+                continue;
+            }
+
+            int waste = freeNightsAround(booked, checkInDate, checkOutDate);
+            if (waste < bestWaste) {
+                bestRoom = room;
+                bestWaste = waste;
+                if (waste == 0) {
+                    break; // The stay fills the gap exactly
+                }
+            }
+        }
+        return bestRoom;
+    }
+
+    /**
+     * Counts the free nights directly before and after a stay that would be left in the same gap.
+     *
+     * @param booked The booked days of the room.
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     * @return The number of free nights adjacent to the stay.
+     */
+    static int freeNightsAround(int booked, int checkInDate, int checkOutDate) {
+        return Room.freeDaysBefore(booked, checkInDate) + Room.freeDaysFrom(booked, checkOutDate);
+    }
+}
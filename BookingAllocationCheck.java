@@ -0,0 +1,82 @@
+import java.lang.management.ManagementFactory;
+
+
+/**
+ * The BookingAllocationCheck class measures the bytes simulateBooking allocates per call and fails
+ * if they exceed the allocation budget of the booking path. Run it with "java BookingAllocationCheck";
+ * it exits with status 1 if a budget is exceeded.
+ *
+ * A rejected booking must not allocate at all. A successful booking may allocate its Reservation
+ * and the next HotelSnapshot of the hotel, which copies the booked room and the new reservation
+ * together with the nodes of the snapshot vectors on the path to them (about 900 bytes for the
+ * 48-room hotel used here).
+ */
+public class BookingAllocationCheck {
+
+    private static final long SUCCESS_BUDGET = 1024; // Bytes per successful booking
+    private static final long REJECTION_BUDGET = 0; // Bytes per rejected booking
+    private static final int ROUNDS = 40; // Later rounds run compiled code, the best round is reported
+    private static final int REJECTIONS = 20000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Runs the check.
+     *
+     * @param args Not used.
+     */
+    public static void main(String[] args) {
+        long success = Long.MAX_VALUE;
+        long unavailable = Long.MAX_VALUE;
+        long invalid = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            HotelTracker tracker = new HotelTracker();
+            tracker.createHotel("A", 5);
+            tracker.createHotel("Hotel", 48);
+            String[] guests = new String[16 * 30];
+            for (int i = 0; i < guests.length; i++) {
+                guests[i] = "Guest " + i;
+            }
+
+            // Every Standard Room of the hotel, one night at a time, with a discount
+            long start = allocatedBytes();
+            int booked = 0;
+            for (int day = 1; day <= 30; day++) {
+                for (int room = 0; room < 16; room++) {
+                    tracker.simulateBooking("Hotel", guests[booked++], day, day + 1, 1, "I_WORK_HERE");
+                }
+            }
+            long afterSuccess = allocatedBytes();
+            for (int i = 0; i < REJECTIONS; i++) {
+                tracker.simulateBooking("Hotel", "Guest", 3, 5, 1, null); // Every Standard Room is full
+            }
+            long afterUnavailable = allocatedBytes();
+            for (int i = 0; i < REJECTIONS; i++) {
+                tracker.simulateBooking("Hotel", "Guest", 5, 3, 1, null); // Check-out before check-in
+            }
+            long afterInvalid = allocatedBytes();
+
+            success = Math.min(success, (afterSuccess - start) / booked);
+            unavailable = Math.min(unavailable, (afterUnavailable - afterSuccess) / REJECTIONS);
+            invalid = Math.min(invalid, (afterInvalid - afterUnavailable) / REJECTIONS);
+        }
+
+        System.out.println("Bytes per booking: success " + success + " (budget " + SUCCESS_BUDGET + "), unavailable "
+                + unavailable + ", invalid dates " + invalid + " (budget " + REJECTION_BUDGET + ")");
+        if (success > SUCCESS_BUDGET || unavailable > REJECTION_BUDGET || invalid > REJECTION_BUDGET) {
+            System.out.println("FAILED: the booking path allocates more than its budget");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread.
+     *
+     * @return The number of bytes allocated.
+     */
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
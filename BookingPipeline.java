@@ -0,0 +1,528 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToIntFunction;
+
+
+/**
+ * The BookingPipeline class funnels every change to a HotelTracker through a single writer thread,
+ * so the tracker is changed without any lock. Callers on any thread submit a command and get a future
+ * of its status code, completed by the writer once the command ran.
+ *
+ * Commands are written into a ring of slots allocated once (as in the Disruptor pattern): a caller
+ * claims the next sequence number, fills the slot of that sequence and publishes it. The writer takes
+ * every published command at once and runs them as a batch, then frees their slots. When the ring is
+ * full, callers wait for the writer instead of queueing without bound, which keeps the time from
+ * submission to completion bounded by the size of the ring.
+ *
+ * While the pipeline runs, the tracker must only be changed through it. Reads that may run on other
+ * threads, such as getHotelSnapshot or the queries of LowLevelInfo, can still be made directly.
+ * The futures are completed on the writer thread, so callbacks attached to them should be short
+ * or run asynchronously.
+ */
+public class BookingPipeline {
+
+    private static final int CREATE_HOTEL = 1;
+    private static final int REMOVE_HOTEL = 2;
+    private static final int CHANGE_HOTEL_NAME = 3;
+    private static final int ADD_ROOM = 4;
+    private static final int REMOVE_ROOM = 5;
+    private static final int UPDATE_ROOM_PRICE = 6;
+    private static final int CHANGE_RATES = 7;
+    private static final int BOOK = 8;
+    private static final int BOOK_IDEMPOTENT = 9;
+    private static final int BOOK_GROUP = 10;
+    private static final int REMOVE_RESERVATION = 11;
+    private static final int JOIN_WAITLIST = 12;
+    private static final int LEAVE_WAITLIST = 13;
+    private static final int REPACK_ROOMS = 14;
+    private static final int CUSTOM = 15;
+
+    private static final int SPINS = 1000; // Checks for new commands before the writer sleeps
+    private static final long CLOSED = Long.MIN_VALUE; // Claimed sequence once the writer stopped
+
+    private final HotelTracker tracker;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(); // Next sequence number given to a caller, or CLOSED
+    private volatile long consumed; // Commands run so far; slots below consumed + slots.length are free
+    private volatile boolean writerWaiting; // The writer sleeps until a caller publishes a command
+    private volatile boolean closed;
+    private volatile long batches;
+    private volatile Thread writer;
+
+    /**
+     * Constructs a BookingPipeline for a tracker. The pipeline runs once started; commands submitted
+     * before then are rejected, as no writer would ever run them.
+     *
+     * @param tracker The tracker changed by the pipeline.
+     * @param capacity The number of commands that can wait to be run, rounded up to a power of two.
+     */
+    public BookingPipeline(HotelTracker tracker, int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.tracker = tracker;
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i - size); // No sequence is published in a new slot
+        }
+    }
+
+    /**
+     * Starts the writer thread, unless it was started already or the pipeline was closed.
+     *
+     * @param threadName The name of the writer thread.
+     */
+    public synchronized void start(String threadName) {
+        if (writer == null && !closed) {
+            writer = new Thread(this::runCommands, threadName);
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Stops accepting commands, and waits until the writer ran every command submitted before.
+     * A pipeline that was never started has no commands to run, as they were rejected.
+     */
+    public void close() {
+        Thread thread;
+        synchronized (this) { // So no writer starts after the pipeline was closed
+            closed = true;
+            thread = writer;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the tracker changed by the pipeline.
+     *
+     * @return The HotelTracker.
+     */
+    public HotelTracker getTracker() {
+        return tracker;
+    }
+
+    /**
+     * Returns the number of commands run so far.
+     *
+     * @return The number of commands run.
+     */
+    public long getCommandCount() {
+        return consumed;
+    }
+
+    /**
+     * Returns the number of batches run so far. Commands per batch grow with the load.
+     *
+     * @return The number of batches run.
+     */
+    public long getBatchCount() {
+        return batches;
+    }
+
+    /**
+     * Creates a hotel, as HotelTracker.createHotel.
+     *
+     * @param hotelName The name of the hotel to be created.
+     * @param numberOfRooms The number of rooms in the hotel.
+     * @return The future status code of createHotel.
+     */
+    public CompletableFuture<Integer> createHotel(String hotelName, int numberOfRooms) {
+        return submit(CREATE_HOTEL, hotelName, null, null, null, numberOfRooms, 0, 0, 0, 0, null, null);
+    }
+
+    /**
+     * Removes a hotel, as HotelTracker.removeHotel.
+     *
+     * @param hotelName The name of the hotel to be removed.
+     * @return The future status code of removeHotel.
+     */
+    public CompletableFuture<Integer> removeHotel(String hotelName) {
+        return submit(REMOVE_HOTEL, hotelName, null, null, null, 0, 0, 0, 0, 0, null, null);
+    }
+
+    /**
+     * Renames a hotel, as HotelTracker.changeHotelName.
+     *
+     * @param oldName The current name of the hotel.
+     * @param newName The new name to be set for the hotel.
+     * @return The future status code of changeHotelName.
+     */
+    public CompletableFuture<Integer> changeHotelName(String oldName, String newName) {
+        return submit(CHANGE_HOTEL_NAME, oldName, newName, null, null, 0, 0, 0, 0, 0, null, null);
+    }
+
+    /**
+     * Adds rooms to a hotel, as HotelTracker.addRoom.
+     *
+     * @param hotelName The name of the hotel.
+     * @param newRooms The number of new rooms to be added.
+     * @return The future number of rooms actually added.
+     */
+    public CompletableFuture<Integer> addRoom(String hotelName, int newRooms) {
+        return submit(ADD_ROOM, hotelName, null, null, null, newRooms, 0, 0, 0, 0, null, null);
+    }
+
+    /**
+     * Removes a room from a hotel, as HotelTracker.removeRoom.
+     *
+     * @param hotelName The name of the hotel.
+     * @param roomNumber The room number to be removed.
+     * @return The future status code of removeRoom.
+     */
+    public CompletableFuture<Integer> removeRoom(String hotelName, int roomNumber) {
+        return submit(REMOVE_ROOM, hotelName, null, null, null, roomNumber, 0, 0, 0, 0, null, null);
+    }
+
+    /**
+     * Updates the price of all rooms in a hotel, as HotelTracker.updateRoomPrice.
+     *
+     * @param hotelName The name of the hotel.
+     * @param newPrice The new price to set for all rooms.
+     * @return The future status code of updateRoomPrice.
+     */
+    public CompletableFuture<Integer> updateRoomPrice(String hotelName, double newPrice) {
+        return submit(UPDATE_ROOM_PRICE, hotelName, null, null, null, 0, 0, 0, 0, newPrice, null, null);
+    }
+
+    /**
+     * Changes the rate of a day in a hotel, as HotelTracker.changeRates.
+     *
+     * @param hotelName The name of the hotel.
+     * @param day The day for which the rate is to be changed.
+     * @param rate The new rate to set for the specified day.
+     * @return The future status code of changeRates.
+     */
+    public CompletableFuture<Integer> changeRates(String hotelName, int day, int rate) {
+        return submit(CHANGE_RATES, hotelName, null, null, null, day, rate, 0, 0, 0, null, null);
+    }
+
+    /**
+     * Books a room, as HotelTracker.simulateBooking.
+     *
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to apply.
+     * @return The future status code of simulateBooking.
+     */
+    public CompletableFuture<Integer> simulateBooking(String hotelName, String guestName, int checkInDate,
+            int checkOutDate, int roomType, String discountCode) {
+        return submit(BOOK, hotelName, guestName, discountCode, null, checkInDate, checkOutDate, roomType, 0, 0,
+                null, null);
+    }
+
+    /**
+     * Books a room once per idempotency key, as the idempotent HotelTracker.simulateBooking.
+     *
+     * @param idempotencyKey The key identifying the request, the same for every retry; null to always book.
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to apply.
+     * @return The future status code of simulateBooking for the first request with this key.
+     */
+    public CompletableFuture<Integer> simulateBooking(String idempotencyKey, String hotelName, String guestName,
+            int checkInDate, int checkOutDate, int roomType, String discountCode) {
+        return submit(BOOK_IDEMPOTENT, hotelName, guestName, discountCode, idempotencyKey, checkInDate, checkOutDate,
+                roomType, 0, 0, null, null);
+    }
+
+    /**
+     * Books several rooms for one guest, as HotelTracker.simulateGroupBooking.
+     *
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param roomTypes The type of each room to book; the array must not be changed afterwards.
+     * @param discountCode The discount code to apply.
+     * @return The future group id, or negated status code, of simulateGroupBooking.
+     */
+    public CompletableFuture<Integer> simulateGroupBooking(String hotelName, String guestName, int checkInDate,
+            int checkOutDate, int[] roomTypes, String discountCode) {
+        return submit(BOOK_GROUP, hotelName, guestName, discountCode, null, checkInDate, checkOutDate, 0, 0, 0,
+                roomTypes, null);
+    }
+
+    /**
+     * Cancels the reservation of a guest, as HotelTracker.removeReservation.
+     *
+     * @param hotelName The name of the hotel where the reservation is made.
+     * @param guestName The name of the guest with the reservation.
+     * @return The future status code of removeReservation.
+     */
+    public CompletableFuture<Integer> removeReservation(String hotelName, String guestName) {
+        return submit(REMOVE_RESERVATION, hotelName, guestName, null, null, 0, 0, 0, 0, 0, null, null);
+    }
+
+    /**
+     * Adds a request to the waitlist of a hotel, as HotelTracker.joinWaitlist.
+     *
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to apply when the request is booked.
+     * @param priority The priority of the request; lower values are served first.
+     * @return The future status code of joinWaitlist.
+     */
+    public CompletableFuture<Integer> joinWaitlist(String hotelName, String guestName, int checkInDate,
+            int checkOutDate, int roomType, String discountCode, int priority) {
+        return submit(JOIN_WAITLIST, hotelName, guestName, discountCode, null, checkInDate, checkOutDate, roomType,
+                priority, 0, null, null);
+    }
+
+    /**
+     * Removes the waiting requests of a guest, as HotelTracker.leaveWaitlist.
+     *
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest.
+     * @return The future number of requests removed, or -1 if the hotel is not found.
+     */
+    public CompletableFuture<Integer> leaveWaitlist(String hotelName, String guestName) {
+        return submit(LEAVE_WAITLIST, hotelName, guestName, null, null, 0, 0, 0, 0, 0, null, null);
+    }
+
+    /**
+     * Moves reservations to free whole rooms of a type, as HotelTracker.repackRooms.
+     *
+     * @param hotelName The name of the hotel.
+     * @param roomType The type of room to repack.
+     * @param maxMoves The maximum number of reservations that may be moved.
+     * @return The future number of reservations moved.
+     */
+    public CompletableFuture<Integer> repackRooms(String hotelName, int roomType, int maxMoves) {
+        return submit(REPACK_ROOMS, hotelName, null, null, null, roomType, maxMoves, 0, 0, 0, null, null);
+    }
+
+    /**
+     * Runs any other change to the tracker on the writer thread, e.g. holding a room or
+     * changing a setting.
+     *
+     * @param change The change, returning its status code.
+     * @return The future status code of the change.
+     */
+    public CompletableFuture<Integer> execute(ToIntFunction<HotelTracker> change) {
+        return submit(CUSTOM, null, null, null, null, 0, 0, 0, 0, 0, null, change);
+    }
+
+    /**
+     * Claims a slot, writes a command into it and publishes it to the writer.
+     *
+     * @param op The operation of the command.
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest, or the new name of the hotel.
+     * @param discountCode The discount code.
+     * @param idempotencyKey The idempotency key.
+     * @param a The first integer argument.
+     * @param b The second integer argument.
+     * @param c The third integer argument.
+     * @param d The fourth integer argument.
+     * @param amount The price argument.
+     * @param roomTypes The room types of a group booking.
+     * @param change The change of a custom command.
+     * @return The future status code of the command.
+     */
+    private CompletableFuture<Integer> submit(int op, String hotelName, String guestName, String discountCode,
+            String idempotencyKey, int a, int b, int c, int d, double amount, int[] roomTypes,
+            ToIntFunction<HotelTracker> change) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("The booking pipeline is closed"));
+        }
+        if (writer == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("The booking pipeline is not started"));
+        }
+
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence == CLOSED) {
+                return CompletableFuture.failedFuture(new IllegalStateException("The booking pipeline is closed"));
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int spins = 0;
+        while (sequence - slots.length >= consumed) { // The ring is full until the writer frees this slot
+            if (++spins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(1000);
+            }
+        }
+
+        Slot slot = slots[(int) (sequence & mask)];
+        CompletableFuture<Integer> future = new CompletableFuture<Integer>();
+        slot.op = op;
+        slot.hotelName = hotelName;
+        slot.guestName = guestName;
+        slot.discountCode = discountCode;
+        slot.idempotencyKey = idempotencyKey;
+        slot.a = a;
+        slot.b = b;
+        slot.c = c;
+        slot.d = d;
+        slot.amount = amount;
+        slot.roomTypes = roomTypes;
+        slot.change = change;
+        slot.future = future;
+        slot.sequence = sequence; // Publishes the fields above to the writer
+
+        if (writerWaiting) {
+            LockSupport.unpark(writer);
+        }
+        return future;
+    }
+
+    /**
+     * The loop of the writer thread: runs the published commands in batches until the pipeline is
+     * closed and every claimed command has run.
+     */
+    private void runCommands() {
+        long next = consumed;
+        int idle = 0;
+        while (true) {
+            long end = next;
+            while (slots[(int) (end & mask)].sequence == end) {
+                end++;
+            }
+
+            if (end == next) {
+                if (closed && claimed.compareAndSet(next, CLOSED)) {
+                    return; // Every claimed command has run, and no more can be claimed
+                }
+                if (++idle < SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    writerWaiting = true;
+                    if (slots[(int) (next & mask)].sequence != next && !closed) {
+                        LockSupport.park(this);
+                    }
+                    writerWaiting = false;
+                    idle = 0;
+                }
+                continue;
+            }
+
+            for (long sequence = next; sequence < end; sequence++) {
+                run(slots[(int) (sequence & mask)]);
+            }
+            idle = 0;
+            batches++;
+            next = end;
+            consumed = end; // Frees the slots of the batch
+        }
+    }
+
+    /**
+     * Runs the command of a slot and completes its future, then clears the slot. Whatever the
+     * command throws, errors included, completes the future exceptionally instead of stopping the
+     * writer thread, which would leave every later command waiting forever.
+     *
+     * @param slot The slot of the command.
+     */
+    private void run(Slot slot) {
+        CompletableFuture<Integer> future = slot.future;
+        try {
+            future.complete(apply(slot));
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        slot.hotelName = null;
+        slot.guestName = null;
+        slot.discountCode = null;
+        slot.idempotencyKey = null;
+        slot.roomTypes = null;
+        slot.change = null;
+        slot.future = null;
+    }
+
+    /**
+     * Runs a command on the tracker.
+     *
+     * @param slot The slot of the command.
+     * @return The status code of the command.
+     */
+    private int apply(Slot slot) {
+        switch (slot.op) {
+            case CREATE_HOTEL:
+                return tracker.createHotel(slot.hotelName, slot.a);
+            case REMOVE_HOTEL:
+                return tracker.removeHotel(slot.hotelName);
+            case CHANGE_HOTEL_NAME:
+                return tracker.changeHotelName(slot.hotelName, slot.guestName);
+            case ADD_ROOM:
+                return tracker.addRoom(slot.hotelName, slot.a);
+            case REMOVE_ROOM:
+                return tracker.removeRoom(slot.hotelName, slot.a);
+            case UPDATE_ROOM_PRICE:
+                return tracker.updateRoomPrice(slot.hotelName, slot.amount);
+            case CHANGE_RATES:
+                return tracker.changeRates(slot.hotelName, slot.a, slot.b);
+            case BOOK:
+                return tracker.simulateBooking(slot.hotelName, slot.guestName, slot.a, slot.b, slot.c,
+                        slot.discountCode);
+            case BOOK_IDEMPOTENT:
+                return tracker.simulateBooking(slot.idempotencyKey, slot.hotelName, slot.guestName, slot.a, slot.b,
+                        slot.c, slot.discountCode);
+            case BOOK_GROUP:
+                return tracker.simulateGroupBooking(slot.hotelName, slot.guestName, slot.a, slot.b, slot.roomTypes,
+                        slot.discountCode);
+            case REMOVE_RESERVATION:
+                return tracker.removeReservation(slot.hotelName, slot.guestName);
+            case JOIN_WAITLIST:
+                return tracker.joinWaitlist(slot.hotelName, slot.guestName, slot.a, slot.b, slot.c,
+                        slot.discountCode, slot.d);
+            case LEAVE_WAITLIST:
+                return tracker.leaveWaitlist(slot.hotelName, slot.guestName);
+            case REPACK_ROOMS:
+                return tracker.repackRooms(slot.hotelName, slot.a, slot.b);
+            default:
+                return slot.change.applyAsInt(tracker);
+        }
+    }
+
+
+    /**
+     * A slot of the ring, reused by every command whose sequence number maps to it.
+     */
+    private static final class Slot {
+        private volatile long sequence; // Sequence of the command last published in the slot
+        private int op;
+        private String hotelName;
+        private String guestName;
+        private String discountCode;
+        private String idempotencyKey;
+        private int a;
+        private int b;
+        private int c;
+        private int d;
+        private double amount;
+        private int[] roomTypes;
+        private ToIntFunction<HotelTracker> change;
+        private CompletableFuture<Integer> future;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
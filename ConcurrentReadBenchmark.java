@@ -0,0 +1,107 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * The ConcurrentReadBenchmark class measures how many LowLevelInfo queries reader threads complete
+ * per second while one writer books and cancels stays in the same hotel, and without the writer
+ * for comparison. Run it with "java ConcurrentReadBenchmark [readers]" (3 readers by default); it
+ * prints the reads and writes per second of each run.
+ *
+ * The readers count free rooms on a day and for a stay, look up rooms by number and find
+ * reservations by guest name in a 3 000-room hotel. Each run is done twice and only the second
+ * one is printed, so the code measured is compiled.
+ */
+public class ConcurrentReadBenchmark {
+
+    private static final int ROOMS = 3000;
+    private static final int BOOKED = 300; // Reservations kept in the hotel while the writer runs
+    private static final long RUN_NANOS = 3000000000L;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of reader threads, optionally.
+     * @throws InterruptedException If interrupted while waiting for the readers.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        for (boolean writes : new boolean[] {true, false}) {
+            for (int round = 0; round < 2; round++) {
+                run(readers, writes, round == 1);
+            }
+        }
+    }
+
+    /**
+     * Runs the readers, and the writer if asked, against a new hotel for a fixed time.
+     *
+     * @param readers The number of reader threads.
+     * @param writes Whether the writer books and cancels stays meanwhile.
+     * @param print Whether to print the throughput.
+     * @throws InterruptedException If interrupted while waiting for the readers.
+     */
+    private static void run(int readers, boolean writes, boolean print) throws InterruptedException {
+        HotelTracker tracker = new HotelTracker();
+        tracker.setMaxRoomsPerHotel(ROOMS);
+        tracker.createHotel("Hotel", ROOMS);
+        LowLevelInfo lowInfo = tracker.displayHighLevelInfo("Hotel").getLowLevelInfo();
+        String[] guests = new String[BOOKED];
+        for (int i = 0; i < BOOKED; i++) {
+            guests[i] = "Guest " + i;
+            tracker.simulateBooking("Hotel", guests[i], 1 + i % 29, 2 + i % 29, 1 + i % 3, null);
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong sink = new AtomicLong(); // Collects the results, so the queries are not optimised away
+        Thread[] threads = new Thread[readers];
+        for (int r = 0; r < readers; r++) {
+            int seed = r * 7919;
+            threads[r] = new Thread(() -> {
+                long count = 0;
+                long results = 0;
+                for (int i = seed; !done.get(); i++) {
+                    results += lowInfo.getAvailableRooms(1 + i % 31);
+                    results += lowInfo.countAvailableRooms(1 + i % 3, 1 + i % 29, 2 + i % 29);
+                    if (lowInfo.getRoom(1 + (i & Integer.MAX_VALUE) % ROOMS) != null) {
+                        results++;
+                    }
+                    if (lowInfo.findReservation(guests[(i & Integer.MAX_VALUE) % 50]) != null) {
+                        results++;
+                    }
+                    count += 4;
+                }
+                reads.addAndGet(count);
+                sink.addAndGet(results);
+            });
+            threads[r].start();
+        }
+
+        // The writer keeps BOOKED reservations by cancelling a guest's stay before booking the guest again
+        long start = System.nanoTime();
+        long written = 0;
+        for (int k = 0; System.nanoTime() - start < RUN_NANOS; k++) {
+            if (writes) {
+                int checkIn = 1 + k % 29;
+                String guest = guests[k % BOOKED];
+                tracker.removeReservation("Hotel", guest);
+                tracker.simulateBooking("Hotel", guest, checkIn, checkIn + 1, 1 + k % 3, null);
+                written += 2;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        done.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        if (print) {
+            System.out.printf("%d readers, %s: %.2fM reads/s, %.0fk writes/s%n", readers,
+                    writes ? "with the writer" : "without writes", reads.get() / seconds / 1e6,
+                    written / seconds / 1e3);
+        }
+    }
+}
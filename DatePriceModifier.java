@@ -6,7 +6,7 @@
  */
 public abstract class DatePriceModifier{
 
-  protected double price; 
+  protected long price; // In cents
 
   
   
@@ -17,9 +17,9 @@ public abstract class DatePriceModifier{
    * 
    * @param checkInDate The start date of the reservation (inclusive).
    * @param checkOutDate The end date of the reservation (exclusive).
-   * @param basePrice The base price per day before any modifications are applied.
+   * @param basePrice The base price per day before any modifications are applied, in cents.
    */
-  public abstract void computePrice(int checkInDate, int checkOutDate, double basePrice);
+  public abstract void computePrice(int checkInDate, int checkOutDate, long basePrice);
 
   
   /**
@@ -28,15 +28,15 @@ public abstract class DatePriceModifier{
    * @return The computed price for the date range as a double value.
    */
   public double getPrice(){
-    return this.price;
+    return Money.toAmount(this.price);
   }
 
   /**
    * Sets the computed price for the specified date range.
    * 
-   * @param price The computed price to be set.
+   * @param price The computed price to be set, in cents.
    */
-  public void setPrice(double price){
+  public void setPrice(long price){
     this.price = price;
   }
 
@@ -14,10 +14,30 @@ public class DeluxeRoom extends Room {
      * 
      * @param roomName The name of the room.
      * @param type The type of the room (typically should match the ROOM_TYPE constant).
-     * @param price The base price of the room. The final price will be 120% of this base price.
+     * @param price The base price of the room in cents. The final price will be 120% of this base price.
      */
-    public DeluxeRoom(String roomName, int type, double price) {
-        super(roomName, type, price * 1.20);
+    public DeluxeRoom(String roomName, int type, long price) {
+        super(roomName, type, priceFor(price));
+    }
+
+    /**
+     * Constructs a handle onto a Deluxe Room held by a RoomStore.
+     * 
+     * @param store The store holding the room.
+     * @param slot The slot of the room in the store.
+     */
+    DeluxeRoom(RoomStore store, int slot) {
+        super(store, slot);
+    }
+
+    /**
+     * Computes the price of a Deluxe Room from the base price of the hotel.
+     * 
+     * @param price The base price in cents.
+     * @return The price of a Deluxe Room in cents, 120% of the base price.
+     */
+    public static long priceFor(long price) {
+        return Money.multiply(price, 1.20);
     }
 
     /**
@@ -6,32 +6,32 @@
  */
 public abstract class Discount {
 
-    protected double basePrice;
-    protected double discountTotal;
+    protected long basePrice; // In cents
+    protected long discountTotal;
 
     
     /**
      * Constructs a Discount with the specified base price.
      * 
-     * @param basePrice The base price to which the discount will be applied.
+     * @param basePrice The base price to which the discount will be applied, in cents.
      */
-    public Discount(double basePrice) {
+    public Discount(long basePrice) {
         this.basePrice = basePrice;
-        discountTotal = 0.0;
+        discountTotal = 0;
     }
 
     /**
-     * Returns the base price.
+     * Returns the base price, for display.
      * 
      * @return The base price of the discount.
      */
     public double getBasePrice() {
-        return this.basePrice;
+        return Money.toAmount(this.basePrice);
     }
 
     /**
      * Abstract method to apply discount, to be implemented by subclasses
-     * @return The total amount after applying the discount.
+     * @return The total amount after applying the discount, in cents.
      */
-    public abstract double applyDiscount();
+    public abstract long applyDiscount();
 }
\ No newline at end of file
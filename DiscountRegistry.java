@@ -0,0 +1,202 @@
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Properties;
+
+
+/**
+ * The DiscountRegistry class maps discount codes to their DiscountRule.
+ * Looking up a code is a single hash lookup, so adding promotions does not lengthen the booking path.
+ *
+ * Rules can be loaded from a properties file where every entry has the form
+ * <pre>
+ * CODE = statusCode, PERCENT, percentOff[, minNights[, requiredDay ...]]
+ * CODE = statusCode, FREE_NIGHT, minNights
+ * </pre>
+ * Large sets of single-use codes are kept in PromoCodeStores, which are only consulted
+ * when a code is not one of the registered shared codes.
+ */
+public class DiscountRegistry {
+
+    private HashMap<String, DiscountRule> rules;
+    private ArrayList<PromoCodeStore> promoStores;
+    private int version; // Incremented whenever the set of rules changes
+
+    /**
+     * Constructs an empty DiscountRegistry.
+     */
+    public DiscountRegistry() {
+        this.rules = new HashMap<String, DiscountRule>();
+        this.promoStores = new ArrayList<PromoCodeStore>();
+    }
+
+    /**
+     * Creates a registry containing the built-in discount codes I_WORK_HERE, STAY4_GET1 and PAYDAY.
+     *
+     * @return A registry with the built-in discount rules.
+     */
+    public static DiscountRegistry createDefault() {
+        DiscountRegistry registry = new DiscountRegistry();
+        registry.register(new PercentDiscountRule("I_WORK_HERE", 1, I_WORK_HERE.DISCOUNT_RATE, 1));
+        registry.register(new FreeNightDiscountRule("STAY4_GET1", 2, STAY4_GET1.MIN_NIGHTS));
+        registry.register(new PercentDiscountRule("PAYDAY", 3, PAYDAY.DISCOUNT_RATE, 1, PAYDAY.FIRST_PAYDAY, PAYDAY.SECOND_PAYDAY));
+        return registry;
+    }
+
+    /**
+     * Creates a registry from a discount configuration file.
+     *
+     * @param fileName The path of the configuration file.
+     * @return A registry with the rules defined in the file.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If an entry in the file is malformed.
+     */
+    public static DiscountRegistry loadFromFile(String fileName) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(fileName)) {
+            properties.load(reader);
+        }
+
+        DiscountRegistry registry = new DiscountRegistry();
+        for (String code : properties.stringPropertyNames()) {
+            registry.register(parseRule(code, properties.getProperty(code)));
+        }
+        return registry;
+    }
+
+    /**
+     * Parses a single configuration entry into a DiscountRule.
+     *
+     * @param code The discount code.
+     * @param definition The rule definition following the code.
+     * @return The parsed DiscountRule.
+     */
+    private static DiscountRule parseRule(String code, String definition) {
+        String[] fields = definition.split(",");
+        try {
+            if (fields.length < 3) {
+                throw new IllegalArgumentException("Incomplete discount definition for " + code);
+            }
+
+            int statusCode = Integer.parseInt(fields[0].trim());
+            String kind = fields[1].trim();
+            int value = Integer.parseInt(fields[2].trim());
+
+            if (kind.equalsIgnoreCase("PERCENT")) {
+                int minNights = fields.length > 3 ? Integer.parseInt(fields[3].trim()) : 1;
+                int[] requiredDays = new int[0];
+                if (fields.length > 4) {
+                    String[] days = fields[4].trim().split("\\s+");
+                    requiredDays = new int[days.length];
+                    for (int i = 0; i < days.length; i++) {
+                        requiredDays[i] = Integer.parseInt(days[i]);
+                    }
+                }
+                return new PercentDiscountRule(code, statusCode, (100 - value) / 100.0, minNights, requiredDays);
+            } else if (kind.equalsIgnoreCase("FREE_NIGHT")) {
+                return new FreeNightDiscountRule(code, statusCode, value);
+            }
+            throw new IllegalArgumentException("Unknown discount kind '" + kind + "' for " + code);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid number in discount definition for " + code, ex);
+        }
+    }
+
+    /**
+     * Registers a rule under its discount code, replacing any rule with the same code.
+     *
+     * @param rule The DiscountRule to register.
+     * @throws IllegalArgumentException If the rule uses a status code reserved for other booking results.
+     */
+    public void register(DiscountRule rule) {
+        if (rule.getStatusCode() >= 4 && rule.getStatusCode() <= 8) {
+            throw new IllegalArgumentException("Status codes 4 to 8 are reserved, cannot register " + rule.getCode());
+        }
+        rules.put(rule.getCode(), rule);
+        version++;
+    }
+
+    /**
+     * Adds a store of single-use promo codes to the registry.
+     *
+     * @param store The PromoCodeStore to add.
+     * @throws IllegalArgumentException If the store uses a status code reserved for other booking results.
+     */
+    public void addPromoCodes(PromoCodeStore store) {
+        if (store.getStatusCode() >= 4 && store.getStatusCode() <= 8) {
+            throw new IllegalArgumentException("Status codes 4 to 8 are reserved, cannot add " + store.getCode());
+        }
+        promoStores.add(store);
+        version++;
+    }
+
+    /**
+     * Removes the rule registered under a discount code.
+     *
+     * @param code The discount code to remove.
+     * @return True if a rule was removed, false otherwise.
+     */
+    public boolean remove(String code) {
+        if (rules.remove(code) != null) {
+            version++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a code is one of the shared, reusable codes in the registry.
+     *
+     * @param code The discount code, may be null.
+     * @return True if the code is registered as a shared rule; false otherwise.
+     */
+    public boolean isShared(String code) {
+        return code != null && rules.containsKey(code);
+    }
+
+    /**
+     * Returns a number that changes every time a rule or promo code store is added or removed.
+     *
+     * @return The version of the registry.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Retrieves the rule registered under a discount code.
+     *
+     * @param code The discount code, may be null.
+     * @return The DiscountRule for the code, or null if the code is unknown.
+     */
+    public DiscountRule getRule(String code) {
+        if (code == null) {
+            return null;
+        }
+
+        DiscountRule rule = rules.get(code);
+        if (rule != null) {
+            return rule;
+        }
+
+        for (int i = 0; i < promoStores.size(); i++) {
+            PromoCodeStore store = promoStores.get(i);
+            if (store.contains(code)) {
+                return store;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the shared discount rules in the registry, not including promo code stores.
+     *
+     * @return The registered DiscountRules.
+     */
+    public Collection<DiscountRule> getRules() {
+        return rules.values();
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * A DiscountRule is a stateless, reusable description of a discount code.
+ * A single instance is registered once in a DiscountRegistry and shared by every booking,
+ * so no Discount object has to be allocated per reservation.
+ */
+public interface DiscountRule {
+
+    /**
+     * Returns the discount code this rule is registered under.
+     *
+     * @return The discount code (e.g., "I_WORK_HERE").
+     */
+    String getCode();
+
+    /**
+     * Returns the status code reported by simulateBooking when this rule is applied.
+     *
+     * @return The booking status code for this discount.
+     */
+    int getStatusCode();
+
+    /**
+     * Checks whether a stay qualifies for this discount.
+     *
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     * @return True if the stay is eligible for the discount; false otherwise.
+     */
+    boolean isEligible(int checkInDate, int checkOutDate);
+
+    /**
+     * Applies the discount to the total price of a stay.
+     *
+     * @param basePrice The total price of the stay before the discount, in cents.
+     * @param priceOnDay The price of a single night of the stay, in cents.
+     * @return The total price after applying the discount, in cents.
+     */
+    long applyDiscount(long basePrice, long priceOnDay);
+
+    /**
+     * Checks whether a code can still be used with this rule, without using it up.
+     *
+     * @param code The discount code entered by the guest.
+     * @return True if the code can be redeemed; false otherwise.
+     */
+    boolean isRedeemable(String code);
+
+    /**
+     * Redeems a code for a booking. Reusable codes can always be redeemed,
+     * single-use codes only the first time.
+     *
+     * @param code The discount code entered by the guest.
+     * @return True if the code was redeemed; false if it was already used up.
+     */
+    boolean redeem(String code);
+}
@@ -0,0 +1,250 @@
+/**
+ * The DynamicPricing class adjusts the price of each room type on each night to its occupancy.
+ * It keeps the number of booked rooms of every type per night, updated as nights are reserved
+ * and released, so a booking only recomputes the multipliers of its own nights instead of
+ * rescanning the rooms. The multipliers are written to the occupancy rates of ModifiedDates.
+ *
+ * Dynamic pricing is off by default; the booked counts are kept either way so it can be
+ * enabled at any time.
+ */
+public class DynamicPricing {
+
+    private static final int TYPES = 4; // Room types 1-3, other types are not priced dynamically
+    private static final int DAYS = 32; // Indexed by day of the month (1-31)
+
+    private ModifiedDates modified;
+    private final int[] roomCounts = new int[TYPES];
+    private final int[] bookedRooms = new int[TYPES * DAYS]; // Booked rooms by type and night
+    private final OccupancyCurve[] curves = new OccupancyCurve[TYPES];
+    private boolean enabled;
+
+    /**
+     * Constructs a disabled DynamicPricing using the default curve for every room type.
+     *
+     * @param modified The ModifiedDates the multipliers are written to.
+     */
+    public DynamicPricing(ModifiedDates modified) {
+        this.modified = modified;
+        for (int type = 1; type < TYPES; type++) {
+            curves[type] = OccupancyCurve.createDefault();
+        }
+    }
+
+    /**
+     * Checks whether prices follow occupancy.
+     *
+     * @return True if dynamic pricing is enabled; false otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables dynamic pricing. Disabling resets every multiplier to 1.0.
+     *
+     * @param enabled True to price by occupancy, false to use the normal and modified rates only.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        for (int type = 1; type < TYPES; type++) {
+            updateAll(type);
+        }
+    }
+
+    /**
+     * Returns the curve of a room type.
+     *
+     * @param roomType The room type (1-3).
+     * @return The OccupancyCurve of the type, or null for other types.
+     */
+    public OccupancyCurve getCurve(int roomType) {
+        return isPriced(roomType) ? curves[roomType] : null;
+    }
+
+    /**
+     * Sets the curve of a room type.
+     *
+     * @param roomType The room type (1-3).
+     * @param curve The new OccupancyCurve of the type.
+     */
+    public void setCurve(int roomType, OccupancyCurve curve) {
+        if (isPriced(roomType)) {
+            curves[roomType] = curve;
+            updateAll(roomType);
+        }
+    }
+
+    /**
+     * Sets the ModifiedDates the multipliers are written to, e.g. after it was replaced.
+     *
+     * @param modified The new ModifiedDates.
+     */
+    public void setModifiedDates(ModifiedDates modified) {
+        this.modified = modified;
+        for (int type = 1; type < TYPES; type++) {
+            updateAll(type);
+        }
+    }
+
+    /**
+     * Returns the fraction of the rooms of a type booked on a night.
+     *
+     * @param roomType The room type (1-3).
+     * @param day The night (1-31).
+     * @return The occupancy between 0 and 1, or 0 if the hotel has no room of the type.
+     */
+    public double getOccupancy(int roomType, int day) {
+        if (!isPriced(roomType) || day < 1 || day >= DAYS || roomCounts[roomType] == 0) {
+            return 0;
+        }
+        return (double) bookedRooms[roomType * DAYS + day] / roomCounts[roomType];
+    }
+
+    /**
+     * Checks whether, on every night of a stay, at least one room of a type is free.
+     * This is necessary for the stay to be booked, even after moving other reservations.
+     *
+     * @param roomType The room type.
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     * @return False if some night of the stay has every room of the type booked; true otherwise,
+     *         and always true for types that are not counted.
+     */
+    public boolean hasFreeRoomEveryNight(int roomType, int checkInDate, int checkOutDate) {
+        if (!isPriced(roomType)) {
+            return true;
+        }
+        for (int day = checkInDate; day < checkOutDate; day++) {
+            if (bookedRooms[roomType * DAYS + day] >= roomCounts[roomType]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts a new room and the nights it already has booked.
+     *
+     * @param room The added room.
+     */
+    public void roomAdded(Room room) {
+        changeRoomCount(room, 1);
+    }
+
+    /**
+     * Counts new rooms of a type that have no booked nights.
+     *
+     * @param roomType The type of the added rooms.
+     * @param count The number of rooms added.
+     */
+    public void roomsAdded(int roomType, int count) {
+        if (count == 0 || !isPriced(roomType)) {
+            return;
+        }
+        roomCounts[roomType] += count;
+        updateAll(roomType);
+    }
+
+    /**
+     * Stops counting a removed room and its booked nights.
+     *
+     * @param room The removed room.
+     */
+    public void roomRemoved(Room room) {
+        changeRoomCount(room, -1);
+    }
+
+    /**
+     * Counts the nights of a stay as booked and updates their multipliers.
+     *
+     * @param roomType The type of the booked room.
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     */
+    public void nightsReserved(int roomType, int checkInDate, int checkOutDate) {
+        changeBookedNights(roomType, checkInDate, checkOutDate, 1);
+    }
+
+    /**
+     * Counts the nights of a stay as free again and updates their multipliers.
+     *
+     * @param roomType The type of the released room.
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     */
+    public void nightsReleased(int roomType, int checkInDate, int checkOutDate) {
+        changeBookedNights(roomType, checkInDate, checkOutDate, -1);
+    }
+
+    /**
+     * Adds or removes a room from the counts of its type.
+     *
+     * @param room The room.
+     * @param delta 1 when the room is added, -1 when it is removed.
+     */
+    private void changeRoomCount(Room room, int delta) {
+        int type = room.getRoomType();
+        if (!isPriced(type)) {
+            return;
+        }
+
+        roomCounts[type] += delta;
+        int booked = room.getBookedMask();
+        for (int day = 1; day < DAYS; day++) {
+            if ((booked & (1 << (day - 1))) != 0) {
+                bookedRooms[type * DAYS + day] += delta;
+            }
+        }
+        updateAll(type); // The occupancy of every night changes with the number of rooms
+    }
+
+    /**
+     * Changes the booked count of the nights of a stay and updates their multipliers.
+     *
+     * @param roomType The room type.
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     * @param delta 1 when the nights are reserved, -1 when they are released.
+     */
+    private void changeBookedNights(int roomType, int checkInDate, int checkOutDate, int delta) {
+        if (!isPriced(roomType)) {
+            return;
+        }
+        for (int day = checkInDate; day < checkOutDate; day++) {
+            bookedRooms[roomType * DAYS + day] += delta;
+            update(roomType, day);
+        }
+    }
+
+    /**
+     * Recomputes the multipliers of every night of a room type.
+     *
+     * @param roomType The room type (1-3).
+     */
+    private void updateAll(int roomType) {
+        for (int day = 1; day < DAYS; day++) {
+            update(roomType, day);
+        }
+    }
+
+    /**
+     * Recomputes the multiplier of a room type on a night from its occupancy.
+     *
+     * @param roomType The room type (1-3).
+     * @param day The night (1-31).
+     */
+    private void update(int roomType, int day) {
+        double multiplier = enabled ? curves[roomType].getMultiplier(getOccupancy(roomType, day)) : 1.0;
+        modified.setOccupancyRate(roomType, day, multiplier);
+    }
+
+    /**
+     * Checks whether a room type is priced dynamically.
+     *
+     * @param roomType The room type.
+     * @return True for the types 1-3; false otherwise.
+     */
+    private static boolean isPriced(int roomType) {
+        return roomType >= 1 && roomType < TYPES;
+    }
+}
@@ -13,10 +13,30 @@ public class ExecutiveRoom extends Room {
      * 
      * @param roomName The name of the room.
      * @param type The type of the room (should be 3 for Executive Rooms).
-     * @param price The base price of the room before the increase.
+     * @param price The base price of the room in cents, before the increase.
      */
-    public ExecutiveRoom(String roomName, int type, double price) {
-        super(roomName, type, price * 1.35);
+    public ExecutiveRoom(String roomName, int type, long price) {
+        super(roomName, type, priceFor(price));
+    }
+
+    /**
+     * Constructs a handle onto an Executive Room held by a RoomStore.
+     * 
+     * @param store The store holding the room.
+     * @param slot The slot of the room in the store.
+     */
+    ExecutiveRoom(RoomStore store, int slot) {
+        super(store, slot);
+    }
+
+    /**
+     * Computes the price of an Executive Room from the base price of the hotel.
+     * 
+     * @param price The base price in cents.
+     * @return The price of an Executive Room in cents, 135% of the base price.
+     */
+    public static long priceFor(long price) {
+        return Money.multiply(price, 1.35);
     }
 
     
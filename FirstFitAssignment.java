@@ -0,0 +1,21 @@
+import java.util.List;
+
+
+/**
+ * The FirstFitAssignment class assigns a stay to the first room of the requested type that is free
+ * for the whole stay, in room order. This is how rooms have always been assigned.
+ */
+public class FirstFitAssignment implements RoomAssignmentStrategy {
+
+    @Override
+    public Room selectRoom(List<Room> rooms, int roomType, int checkInDate, int checkOutDate) {
+        int stay = Room.nightMask(checkInDate, checkOutDate);
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            if (room.getRoomType() == roomType && (room.getBookedMask() & stay) == 0) {
+                return room;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * The FreeNightDiscountRule class is a DiscountRule that gives one night of the stay for free
+ * once the stay reaches a minimum number of nights (e.g., STAY4_GET1).
+ */
+public class FreeNightDiscountRule implements DiscountRule {
+
+    private final String code;
+    private final int statusCode;
+    private final int minNights;
+
+    /**
+     * Constructs a FreeNightDiscountRule.
+     *
+     * @param code The discount code.
+     * @param statusCode The booking status code reported when the discount is applied.
+     * @param minNights The minimum number of nights the stay must have.
+     */
+    public FreeNightDiscountRule(String code, int statusCode, int minNights) {
+        this.code = code;
+        this.statusCode = statusCode;
+        this.minNights = minNights;
+    }
+
+    @Override
+    public String getCode() {
+        return code;
+    }
+
+    @Override
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public boolean isRedeemable(String code) {
+        return true; // Shared codes can be used by any number of bookings
+    }
+
+    @Override
+    public boolean redeem(String code) {
+        return true;
+    }
+
+    @Override
+    public boolean isEligible(int checkInDate, int checkOutDate) {
+        return checkOutDate - checkInDate >= minNights;
+    }
+
+    /**
+     * Removes the price of one night from the total price of the stay.
+     *
+     * @param basePrice The total price of the stay before the discount, in cents.
+     * @param priceOnDay The price of the free night, in cents.
+     * @return The total price after applying the discount, in cents.
+     */
+    @Override
+    public long applyDiscount(long basePrice, long priceOnDay) {
+        return basePrice - priceOnDay;
+    }
+}
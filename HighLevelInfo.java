@@ -7,7 +7,7 @@
 public class HighLevelInfo {
     private String hotelName;
     private int numberOfRooms;
-    private double earnings;
+    private long earnings; // In cents
     private ProfitManager profit;
 
     /**
@@ -21,7 +21,7 @@ public class HighLevelInfo {
         this.hotelName = hotelName;
         this.numberOfRooms = numberOfRooms;
         this.profit = new ProfitManager(lowinfo); // Initialize ProfitManager with lowinfo
-        this.earnings = profit.getTotalEarnings();
+        this.earnings = profit.getTotalEarningsCents();
     }
 
     /**
@@ -48,8 +48,8 @@ public class HighLevelInfo {
      * @return The total earnings of the hotel.
      */
     public double getEarnings() {
-        this.earnings = profit.getTotalEarnings();
-        return this.earnings;
+        this.earnings = profit.getTotalEarningsCents();
+        return Money.toAmount(this.earnings);
     }
 
     /**
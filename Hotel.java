@@ -5,6 +5,7 @@
 public class Hotel {
     private HighLevelInfo highinfo;
     private LowLevelInfo lowinfo;
+    private volatile HotelSnapshot snapshot; // Latest published state, read by any thread
 
     
     /**
@@ -16,6 +17,7 @@ public class Hotel {
     public Hotel(HighLevelInfo highinfo, LowLevelInfo lowinfo) {
         this.highinfo = highinfo;
         this.lowinfo = lowinfo;
+        this.snapshot = HotelSnapshot.publish(null, highinfo, lowinfo);
     }
 
     
@@ -36,6 +38,33 @@ public class Hotel {
     public LowLevelInfo getLowLevelInfo() {
         return this.lowinfo;
     }
+
+    /**
+     * Returns the latest published snapshot of the hotel. Safe to call from any thread, and never
+     * blocked by bookings; the snapshot does not change when the hotel does.
+     * 
+     * @return The immutable HotelSnapshot published last.
+     */
+    public HotelSnapshot getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Publishes a snapshot with the changes made to the hotel since the last one.
+     * Called by the thread that changes the hotel, once a change is complete.
+     */
+    public void publishSnapshot() {
+        this.snapshot = HotelSnapshot.publish(this.snapshot, this.highinfo, this.lowinfo);
+    }
+
+    /**
+     * Releases the resources of the hotel, such as an off-heap room inventory, whose direct memory
+     * is then returned to the system when the garbage collector collects it.
+     * Called when the hotel is removed; the hotel must not be used afterwards.
+     */
+    public void close() {
+        this.lowinfo.close();
+    }
     
     
     
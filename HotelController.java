@@ -93,7 +93,7 @@ public class HotelController implements ActionListener, DocumentListener {
         		
         	}
         	else if (val == 2) {
-        		view.displayMessage("Number of rooms must be between 1 and 50.");
+        		view.displayMessage("Number of rooms must be between 1 and " + model.getMaxRoomsPerHotel() + ".");
         	}
     		
     		
@@ -113,14 +113,14 @@ public class HotelController implements ActionListener, DocumentListener {
      * @param hotelName The name of the hotel whose information is to be retrieved.
      */
     public void handleHighLevelInfo(String hotelName) {
-        Hotel hotel;
-    	hotel = model.displayHighLevelInfo(hotelName);
+        HotelSnapshot hotel;
+    	hotel = model.getHotelSnapshot(hotelName); // Read without blocking bookings
     	if (hotel != null) {
     		
     		StringBuilder message = new StringBuilder();
-            message.append("Hotel Name: ").append(hotel.getHighLevelInfo().getHotelName()).append("\n");
-            message.append("Number of Rooms: ").append(hotel.getHighLevelInfo().getNumberOfRooms()).append("\n");
-            message.append("Total Earnings: ").append(String.format("%.2f", hotel.getHighLevelInfo().getEarnings())).append("\n");
+            message.append("Hotel Name: ").append(hotel.getHotelName()).append("\n");
+            message.append("Number of Rooms: ").append(hotel.getNumberOfRooms()).append("\n");
+            message.append("Total Earnings: ").append(String.format("%.2f", hotel.getEarnings())).append("\n");
             
             view.displayMessage(message.toString());
     	}
@@ -137,14 +137,14 @@ public class HotelController implements ActionListener, DocumentListener {
      */
 	public void handleTotalRooms(String hotelName, int selectedDate) {
 		// TODO Auto-generated method stub
-		Hotel hotel;
-    	hotel = model.displayLowLevelInfoDate(hotelName, selectedDate);
+		HotelSnapshot hotel;
+    	hotel = model.getHotelSnapshot(hotelName);
  
     	if (hotel != null) {
     		
     		StringBuilder message = new StringBuilder();
-            message.append("Total Available Rooms: ").append(hotel.getLowLevelInfo().getAvailableRooms(selectedDate)).append("\n");
-            message.append("Total Booked Rooms: ").append(hotel.getLowLevelInfo().getBookedRooms(selectedDate)).append("\n");
+            message.append("Total Available Rooms: ").append(hotel.getAvailableRooms(selectedDate)).append("\n");
+            message.append("Total Booked Rooms: ").append(hotel.getBookedRooms(selectedDate)).append("\n");
             
             view.displayMessage(message.toString());
     	}
@@ -164,11 +164,12 @@ public class HotelController implements ActionListener, DocumentListener {
 	public void handleSpecificRoomInfo(String hotelName, int roomNumber) {
 		// TODO Auto-generated method stub
 		
-		Room room;
+		RoomSnapshot room;
 		
 		try {
 	
-			room = model.displayLowLevelInfoRoom(hotelName, roomNumber);
+			HotelSnapshot hotel = model.getHotelSnapshot(hotelName);
+			room = hotel != null ? hotel.getRoom(roomNumber) : null;
         	
         	if (room != null) {
         		
@@ -232,10 +233,11 @@ public class HotelController implements ActionListener, DocumentListener {
      * @param guestName The name of the guest whose reservation is to be retrieved.
      */
 	public void handleReservationInfo(String hotelName, String guestName) {
-	    Reservation reservation;
+	    ReservationSnapshot reservation;
 	    
 	    try {
-	        reservation = model.displayLowLevelInfoGuest(hotelName, guestName);
+	        HotelSnapshot hotel = model.getHotelSnapshot(hotelName);
+	        reservation = hotel != null ? hotel.findReservation(guestName) : null;
 	        
 	        if (reservation != null) {
 	            StringBuilder message = new StringBuilder();
@@ -333,7 +335,11 @@ public class HotelController implements ActionListener, DocumentListener {
 				view.displayMessage("Invalid dates. Check-in date must be before check-out date, and both must be within the range of 1 to 31.");
 				break;
 			default:
-				view.displayMessage("An unexpected error occurred");
+				if (val > 8) {
+					view.displayMessage("Booking successful with '" + discountCode + "' discount applied.");
+				} else {
+					view.displayMessage("An unexpected error occurred");
+				}
 				break;
 		}
     		   		
@@ -516,7 +522,7 @@ public class HotelController implements ActionListener, DocumentListener {
 		}
 		else {
 			
-			view.displayMessage("The hotel is at max capacity (50 rooms) or hotel is not found");
+			view.displayMessage("The hotel is at max capacity (" + model.getMaxRoomsPerHotel() + " rooms) or hotel is not found");
 		}
 		
 	}
@@ -603,12 +609,13 @@ public class HotelController implements ActionListener, DocumentListener {
 	   
 	    
 	    // Check if the list is null or empty
-	    if (model.displayHotelList() == null || model.displayHotelList().isEmpty()) {
+	    ArrayList<String> hotelNames = model.displayHotelList();
+	    if (hotelNames == null || hotelNames.isEmpty()) {
 	        view.displayMessage("No hotels found.");
 	        return null; // Return an empty list if no hotels are found
 	    } else {
 	        // Return the list of hotel names
-	        return model.displayHotelList();
+	        return hotelNames;
 	    }
 	}
 
@@ -0,0 +1,120 @@
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * The HotelScaleBenchmark class measures how createHotel, addRoom, simulateBooking and removeRoom
+ * scale with the number of rooms of a hotel, at 50, 1 000 and 10 000 rooms. Run it with
+ * "java HotelScaleBenchmark"; it prints the time of each operation per hotel size, and exits with
+ * status 1 if the hotel afterwards disagrees with what the operations reported, e.g. in its number
+ * of rooms, reservations or free rooms.
+ *
+ * Every size is run twice and only the second run is printed, so the code measured is compiled.
+ */
+public class HotelScaleBenchmark {
+
+    private static final int[] ROOM_COUNTS = {50, 1000, 10000};
+    private static final int OPERATIONS = 2000; // Rooms added, bookings and removals per hotel
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Not used.
+     */
+    public static void main(String[] args) {
+        for (int round = 0; round < 2; round++) {
+            for (int rooms : ROOM_COUNTS) {
+                run(rooms, round == 1);
+            }
+        }
+    }
+
+    /**
+     * Creates a hotel, adds, books and removes rooms in it, and checks the hotel afterwards.
+     *
+     * @param rooms The number of rooms the hotel is created with.
+     * @param print Whether to print the times.
+     */
+    private static void run(int rooms, boolean print) {
+        HotelTracker tracker = new HotelTracker();
+        tracker.setMaxRoomsPerHotel(rooms + OPERATIONS);
+        Random random = new Random(45);
+
+        long start = System.nanoTime();
+        check(tracker.createHotel("Hotel", rooms) == 0, "createHotel");
+        long create = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            check(tracker.addRoom("Hotel", 1) == 1, "addRoom");
+        }
+        long add = System.nanoTime() - start;
+
+        int booked = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int checkIn = 1 + random.nextInt(28);
+            int status = tracker.simulateBooking("Hotel", "Guest " + i, checkIn, checkIn + 1 + random.nextInt(3),
+                    1 + random.nextInt(3), null);
+            if (status != 5) {
+                booked++;
+            }
+        }
+        long book = System.nanoTime() - start;
+
+        int removed = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (tracker.removeRoom("Hotel", 1 + random.nextInt(rooms)) == 0) {
+                removed++;
+            }
+        }
+        long remove = System.nanoTime() - start;
+
+        LowLevelInfo lowInfo = tracker.displayHighLevelInfo("Hotel").getLowLevelInfo();
+        check(lowInfo.getRooms().size() == rooms + OPERATIONS - removed, "room count");
+        check(lowInfo.getReservations().size() == booked, "reservation count");
+        for (int type = 1; type <= 3; type++) {
+            check(lowInfo.countAvailableRooms(type, 10, 12) == countAvailable(lowInfo.getRooms(), type, 10, 12),
+                    "free rooms of type " + type);
+        }
+
+        if (print) {
+            System.out.printf("%d rooms: createHotel %.2f ms, addRoom %d ns, simulateBooking %d ns (%d booked), "
+                    + "removeRoom %d ns (%d removed)%n", rooms, create / 1e6, add / OPERATIONS, book / OPERATIONS,
+                    booked, remove / OPERATIONS, removed);
+        }
+    }
+
+    /**
+     * Counts the free rooms of a type for a stay by asking every room.
+     *
+     * @param rooms The rooms of the hotel.
+     * @param roomType The room type.
+     * @param checkInDate The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return The number of rooms of the type free for the stay.
+     */
+    private static int countAvailable(List<Room> rooms, int roomType, int checkInDate, int checkOutDate) {
+        int available = 0;
+        for (Room room : rooms) {
+            if (room.getRoomType() == roomType && room.isAvailable(checkInDate, checkOutDate)) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Stops the benchmark with status 1 if a check failed.
+     *
+     * @param passed Whether the check passed.
+     * @param what What was checked.
+     */
+    private static void check(boolean passed, String what) {
+        if (!passed) {
+            System.out.println("FAILED: wrong " + what);
+            System.exit(1);
+        }
+    }
+}
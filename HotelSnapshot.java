@@ -0,0 +1,383 @@
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * The HotelSnapshot class is an immutable, versioned copy of the state of a hotel: its name,
+ * earnings, rooms and reservations. Writers publish a new snapshot after each change and readers,
+ * such as reports and the GUI, read the latest one without locking, so reads never block bookings
+ * and never see a half-made change.
+ *
+ * Publishing is cheap because a snapshot shares everything that did not change with the previous one:
+ * rooms and reservations are kept in PersistentVectors, and only the rooms and reservations changed
+ * since the last snapshot are copied. Rooms are kept by the slot they have in the RoomStore, so a
+ * removed room leaves an empty entry just like in the store; a cancelled reservation also leaves an
+ * empty entry, and those are squeezed out once they outnumber the reservations.
+ */
+public final class HotelSnapshot {
+    private final long version;
+    private final String hotelName;
+    private final int numberOfRooms;
+    private final long earnings; // In cents
+    private final PersistentVector<RoomSnapshot> rooms; // By slot, null where there is no room
+    private final int roomCount;
+    private final PersistentVector<ReservationSnapshot> reservations; // In booking order, null where one was removed
+    private final int reservationCount;
+
+    /**
+     * Constructs a HotelSnapshot with the specified values.
+     *
+     * @param version The version of the snapshot.
+     * @param hotelName The name of the hotel.
+     * @param numberOfRooms The number of rooms of the hotel.
+     * @param earnings The total of the reservations, in cents.
+     * @param rooms The rooms by slot, with null entries for empty slots.
+     * @param roomCount The number of rooms.
+     * @param reservations The reservations in booking order, with null entries for removed ones.
+     * @param reservationCount The number of reservations.
+     */
+    private HotelSnapshot(long version, String hotelName, int numberOfRooms, long earnings,
+            PersistentVector<RoomSnapshot> rooms, int roomCount, PersistentVector<ReservationSnapshot> reservations,
+            int reservationCount) {
+        this.version = version;
+        this.hotelName = hotelName;
+        this.numberOfRooms = numberOfRooms;
+        this.earnings = earnings;
+        this.rooms = rooms;
+        this.roomCount = roomCount;
+        this.reservations = reservations;
+        this.reservationCount = reservationCount;
+    }
+
+    /**
+     * Creates the snapshot following a previous one, copying only what changed since it was published,
+     * and clears the change records of the hotel. Must be called by the thread that changes the hotel.
+     *
+     * @param previous The last published snapshot of the hotel, or null to copy everything.
+     * @param highinfo The high-level information of the hotel.
+     * @param lowinfo The low-level information of the hotel.
+     * @return The new snapshot, or the previous one if nothing changed.
+     */
+    static HotelSnapshot publish(HotelSnapshot previous, HighLevelInfo highinfo, LowLevelInfo lowinfo) {
+        RoomStore store = lowinfo.getRoomStore();
+        List<Reservation> live = lowinfo.getReservations();
+
+        PersistentVector<RoomSnapshot> rooms;
+        if (previous == null || store.isLayoutChanged() || store.getSlotCount() > 2 * previous.rooms.size()) {
+            rooms = copyRooms(store);
+        } else {
+            rooms = previous.rooms;
+            int published = rooms.size();
+            for (int i = 0; i < store.getChangedCount(); i++) {
+                int slot = store.getChangedSlot(i);
+                if (slot < published) { // Slots used since are appended below
+                    rooms = rooms.with(slot, copyRoom(store, slot));
+                }
+            }
+            for (int slot = published; slot < store.getSlotCount(); slot++) {
+                rooms = rooms.append(copyRoom(store, slot));
+            }
+        }
+
+        PersistentVector<ReservationSnapshot> reservations = null;
+        long earnings = 0;
+        int reservationCount = 0;
+        if (previous != null && !lowinfo.isReservationsReset()) {
+            reservations = previous.reservations;
+            earnings = previous.earnings;
+            reservationCount = previous.reservationCount;
+
+            for (Reservation reservation : lowinfo.getMovedReservations()) {
+                int index = indexOfCopy(reservations, reservation);
+                if (index < 0) {
+                    reservations = null; // Not published yet; copy everything below
+                    break;
+                }
+                reservations = reservations.with(index, copyReservation(reservation, store, rooms));
+            }
+            if (reservations != null) {
+                for (Reservation reservation : lowinfo.getRemovedReservations()) {
+                    int index = indexOfCopy(reservations, reservation);
+                    if (index < 0) {
+                        reservations = null;
+                        break;
+                    }
+                    earnings -= reservations.get(index).getReservationTotalCents();
+                    reservations = reservations.with(index, null);
+                    reservationCount--;
+                }
+            }
+            if (reservations != null && reservationCount > live.size()) {
+                reservations = null; // Reservations were removed without being recorded
+            }
+            if (reservations != null) {
+                for (int i = reservationCount; i < live.size(); i++) { // New reservations are at the end
+                    Reservation reservation = live.get(i);
+                    ReservationSnapshot copy = copyReservation(reservation, store, rooms);
+                    reservation.setSnapshotIndex(reservations.size());
+                    reservations = reservations.append(copy);
+                    earnings += copy.getReservationTotalCents();
+                    reservationCount++;
+                }
+                if (reservations.size() - reservationCount > Math.max(64, reservationCount)) {
+                    reservations = squeeze(reservations, reservationCount);
+                }
+            }
+        }
+        if (reservations == null) {
+            ReservationSnapshot[] copies = new ReservationSnapshot[live.size()];
+            earnings = 0;
+            for (int i = 0; i < copies.length; i++) {
+                copies[i] = copyReservation(live.get(i), store, rooms);
+                live.get(i).setSnapshotIndex(i);
+                earnings += copies[i].getReservationTotalCents();
+            }
+            reservations = PersistentVector.of(copies, copies.length);
+            reservationCount = copies.length;
+        }
+
+        store.clearChanges();
+        lowinfo.clearReservationChanges();
+
+        String hotelName = highinfo.getHotelName();
+        int numberOfRooms = highinfo.getNumberOfRooms();
+        if (previous != null && rooms == previous.rooms && reservations == previous.reservations
+                && hotelName.equals(previous.hotelName) && numberOfRooms == previous.numberOfRooms) {
+            return previous;
+        }
+        return new HotelSnapshot(previous == null ? 1 : previous.version + 1, hotelName, numberOfRooms,
+                earnings, rooms, store.size(), reservations, reservationCount);
+    }
+
+    /**
+     * Finds the copy of a reservation in the reservations of a snapshot.
+     *
+     * @param reservations The reservations of a snapshot.
+     * @param reservation The reservation.
+     * @return The index of its copy, or -1 if the reservation has no copy there.
+     */
+    private static int indexOfCopy(PersistentVector<ReservationSnapshot> reservations, Reservation reservation) {
+        int index = reservation.getSnapshotIndex();
+        if (index < 0 || index >= reservations.size() || reservations.get(index) == null
+                || !reservations.get(index).isCopyOf(reservation)) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * Drops the entries of removed reservations, keeping the copies of the others, and updates
+     * the indexes recorded in the reservations.
+     *
+     * @param reservations The reservations of a snapshot, with null entries.
+     * @param reservationCount The number of reservations.
+     * @return The reservations without null entries.
+     */
+    private static PersistentVector<ReservationSnapshot> squeeze(PersistentVector<ReservationSnapshot> reservations,
+            int reservationCount) {
+        ReservationSnapshot[] copies = new ReservationSnapshot[reservationCount];
+        int count = 0;
+        for (ReservationSnapshot copy : reservations) {
+            if (copy != null) {
+                copy.getSource().setSnapshotIndex(count);
+                copies[count++] = copy;
+            }
+        }
+        return PersistentVector.of(copies, count);
+    }
+
+    /**
+     * Copies every room of a store, by slot.
+     *
+     * @param store The store holding the rooms.
+     * @return The snapshots of the rooms, with null entries for empty slots.
+     */
+    private static PersistentVector<RoomSnapshot> copyRooms(RoomStore store) {
+        RoomSnapshot[] copies = new RoomSnapshot[store.getSlotCount()];
+        for (int slot = 0; slot < copies.length; slot++) {
+            copies[slot] = copyRoom(store, slot);
+        }
+        return PersistentVector.of(copies, copies.length);
+    }
+
+    /**
+     * Copies the room in a slot of a store.
+     *
+     * @param store The store holding the rooms.
+     * @param slot The slot.
+     * @return The snapshot of the room, or null if the slot holds no room.
+     */
+    private static RoomSnapshot copyRoom(RoomStore store, int slot) {
+        return slot < store.getSlotCount() && store.getType(slot) != 0 ? RoomSnapshot.of(store, slot) : null;
+    }
+
+    /**
+     * Copies a reservation, sharing the snapshot of its room with the room list.
+     *
+     * @param reservation The reservation to copy.
+     * @param store The store holding the rooms of the hotel.
+     * @param rooms The snapshots of the rooms of the hotel.
+     * @return The snapshot of the reservation.
+     */
+    private static ReservationSnapshot copyReservation(Reservation reservation, RoomStore store,
+            PersistentVector<RoomSnapshot> rooms) {
+        Room room = reservation.getRoom();
+        RoomSnapshot roomCopy;
+        if (room.getStore() == store) {
+            roomCopy = rooms.get(room.getSlot());
+        } else { // A room that is not part of the hotel
+            roomCopy = new RoomSnapshot(0, room.getRoomName(), room.getRoomType(), room.getPriceCents(),
+                    room.getBookedMask());
+        }
+        return new ReservationSnapshot(reservation, roomCopy);
+    }
+
+    /**
+     * Returns the version of the snapshot. Every snapshot published for a hotel has a higher
+     * version than the one before it.
+     *
+     * @return The version, 1 for the first snapshot of a hotel.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the name of the hotel.
+     *
+     * @return The name of the hotel.
+     */
+    public String getHotelName() {
+        return hotelName;
+    }
+
+    /**
+     * Returns the total number of rooms in the hotel.
+     *
+     * @return The total number of rooms.
+     */
+    public int getNumberOfRooms() {
+        return numberOfRooms;
+    }
+
+    /**
+     * Returns the total earnings of the hotel.
+     *
+     * @return The total of every reservation.
+     */
+    public double getEarnings() {
+        return Money.toAmount(earnings);
+    }
+
+    /**
+     * Returns the total earnings of the hotel in cents.
+     *
+     * @return The total of every reservation in cents.
+     */
+    public long getEarningsCents() {
+        return earnings;
+    }
+
+    /**
+     * Returns the rooms of the hotel.
+     *
+     * @return A new ArrayList of the rooms in room order.
+     */
+    public ArrayList<RoomSnapshot> getRooms() {
+        ArrayList<RoomSnapshot> list = new ArrayList<RoomSnapshot>(roomCount);
+        for (RoomSnapshot room : rooms) {
+            if (room != null) {
+                list.add(room);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Retrieves a specific room by its room number.
+     *
+     * @param roomNumber The number of the room (1 to the number of rooms).
+     * @return The room, or null if the room number is invalid.
+     */
+    public RoomSnapshot getRoom(int roomNumber) {
+        if (roomNumber < 1 || roomNumber > roomCount) {
+            return null;
+        }
+        if (rooms.size() == roomCount) {
+            return rooms.get(roomNumber - 1); // No empty slots, room numbers follow the slots
+        }
+
+        int position = 0;
+        for (RoomSnapshot room : rooms) {
+            if (room != null && ++position == roomNumber) {
+                return room;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the reservations of the hotel.
+     *
+     * @return A new ArrayList of the reservations in booking order.
+     */
+    public ArrayList<ReservationSnapshot> getReservations() {
+        ArrayList<ReservationSnapshot> list = new ArrayList<ReservationSnapshot>(reservationCount);
+        for (ReservationSnapshot reservation : reservations) {
+            if (reservation != null) {
+                list.add(reservation);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns the number of reservations of the hotel.
+     *
+     * @return The number of reservations.
+     */
+    public int getReservationCount() {
+        return reservationCount;
+    }
+
+    /**
+     * Finds the first reservation of a guest.
+     *
+     * @param guestName The name of the guest.
+     * @return The reservation, or null if the guest has none.
+     */
+    public ReservationSnapshot findReservation(String guestName) {
+        for (ReservationSnapshot reservation : reservations) {
+            if (reservation != null && guestName.equals(reservation.getGuestName())) {
+                return reservation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of available rooms on a specific date.
+     *
+     * @param selectedDate The date to check availability (1-31).
+     * @return The number of rooms not booked on the date.
+     */
+    public int getAvailableRooms(int selectedDate) {
+        int available = 0;
+        for (RoomSnapshot room : rooms) {
+            if (room != null && room.getAvailabilityDay(selectedDate)) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Gets the number of booked rooms on a specific date.
+     *
+     * @param selectedDate The date to check bookings (1-31).
+     * @return The number of rooms booked on the date.
+     */
+    public int getBookedRooms(int selectedDate) {
+        return roomCount - getAvailableRooms(selectedDate);
+    }
+}
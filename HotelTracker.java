@@ -1,4 +1,11 @@
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 
 
@@ -6,18 +13,133 @@ import java.util.ArrayList;
  * HotelTracker manages a collection of hotels, providing functionality to create, 
  * view, update, and delete hotels and their associated data such as rooms and reservations.
  * This class acts as a central point for managing hotel-related operations.
+ *
+ * Changes must come from one thread at a time, e.g. the writer thread of a BookingPipeline,
+ * while the snapshots and the queries of each hotel's LowLevelInfo can be read from any thread.
  */
 public class HotelTracker {
     private ArrayList<Hotel> hotels;
-    private ArrayList<String> hotelNames = new ArrayList<>();
+    private volatile Map<String, Hotel> publishedHotels = Collections.emptyMap(); // Read-only copy of the hotels by name, replaced on every change
+    private DiscountRegistry discounts;
+    private QuoteCache quoteCache;
+    private int quotedRegistryVersion; // Registry version the cached quotes were computed with
+    private int repackLimit = 3; // Reservations simulateBooking may move to open a room
+    private int maxRoomsPerHotel = 50; // Room capacity of createHotel and addRoom
+    private int nextGroupId = 1;
+    private HashMap<Long, RoomHold> holds; // Active holds by id
+    private TimingWheel holdWheel;
+    private ArrayList<RoomHold> expiredHolds = new ArrayList<>();
+    private long nextHoldId = 1;
+    private IdempotencyTable bookingRequests;
+    private LostDemand lostDemand; // Requests simulateBooking turned away
 
     
     /**
      * Constructor for the HotelTracker class.
-     * Initializes the list of hotels.
+     * Initializes the list of hotels, the built-in discount codes, the quote cache and the hold timer.
      */
     public HotelTracker() {
         this.hotels = new ArrayList<Hotel>();
+        this.discounts = DiscountRegistry.createDefault();
+        this.quoteCache = new QuoteCache(10000);
+        this.quotedRegistryVersion = discounts.getVersion();
+        this.holds = new HashMap<Long, RoomHold>();
+        this.holdWheel = new TimingWheel(100, 512, System.currentTimeMillis());
+        this.bookingRequests = new IdempotencyTable(10 * 60 * 1000, 100000); // Retries within 10 minutes
+        this.lostDemand = new LostDemand();
+    }
+    
+    
+    /**
+     * Returns the registry of discount codes accepted by simulateBooking.
+     * 
+     * @return The DiscountRegistry used by this tracker.
+     */
+    public DiscountRegistry getDiscountRegistry() {
+        return this.discounts;
+    }
+    
+    
+    /**
+     * Replaces the registry of discount codes accepted by simulateBooking,
+     * e.g. with one loaded through DiscountRegistry.loadFromFile.
+     * 
+     * @param discounts The new DiscountRegistry.
+     */
+    public void setDiscountRegistry(DiscountRegistry discounts) {
+        this.discounts = discounts;
+        this.quoteCache.clear();
+        this.quotedRegistryVersion = discounts.getVersion();
+    }
+    
+    
+    /**
+     * Sets how many existing reservations simulateBooking may move to other rooms of the same type
+     * when no single room is free for a whole stay.
+     * 
+     * @param repackLimit The maximum number of reservations moved per booking, 0 to never move any.
+     */
+    public void setRepackLimit(int repackLimit) {
+        this.repackLimit = repackLimit;
+    }
+    
+    
+    /**
+     * Sets the maximum number of rooms a hotel may have, checked by createHotel and addRoom.
+     * Hotels that already have more rooms keep them but cannot grow.
+     * 
+     * @param maxRoomsPerHotel The maximum number of rooms per hotel.
+     * @return An integer status code: 
+     *         0 - Success, capacity changed;
+     *         1 - Invalid capacity (less than 1).
+     */
+    public int setMaxRoomsPerHotel(int maxRoomsPerHotel) {
+        if (maxRoomsPerHotel < 1) {
+            return 1;
+        }
+        this.maxRoomsPerHotel = maxRoomsPerHotel;
+        return 0;
+    }
+    
+    
+    /**
+     * Returns the maximum number of rooms a hotel may have.
+     * 
+     * @return The room capacity of a hotel, 50 unless changed.
+     */
+    public int getMaxRoomsPerHotel() {
+        return this.maxRoomsPerHotel;
+    }
+    
+    
+    /**
+     * Returns the cache of quotes, e.g. to read its hit rate.
+     * 
+     * @return The QuoteCache used by quote.
+     */
+    public QuoteCache getQuoteCache() {
+        return this.quoteCache;
+    }
+    
+    
+    /**
+     * Returns the counters of the booking requests simulateBooking rejected with status code 5 or 8.
+     * 
+     * @return The LostDemand of this tracker.
+     */
+    public LostDemand getLostDemand() {
+        return this.lostDemand;
+    }
+    
+    
+    /**
+     * Reports the unmet demand of every hotel: rejected requests by room type, lost room nights
+     * by night and rejected requests by stay length.
+     * 
+     * @return An ArrayList with the lines of the report.
+     */
+    public ArrayList<String> reportLostDemand() {
+        return lostDemand.report();
     }
 
     
@@ -31,12 +153,12 @@ public class HotelTracker {
      * @return An integer status code: 
      *         0 - Success, hotel created;
      *         1 - Hotel already exists;
-     *         2 - Invalid number of rooms.
+     *         2 - Invalid number of rooms (less than 1 or more than getMaxRoomsPerHotel).
      */
     public int createHotel(String hotelName, int numberOfRooms) {
 
 
-    	if (numberOfRooms >= 1 && numberOfRooms <= 50) {
+    	if (numberOfRooms >= 1 && numberOfRooms <= maxRoomsPerHotel) {
             for (Hotel hotel : hotels) {
                 if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
                    
@@ -47,8 +169,7 @@ public class HotelTracker {
             LowLevelInfo lowinfo = new LowLevelInfo();
             HighLevelInfo highinfo = new HighLevelInfo(hotelName, numberOfRooms, lowinfo);
 
-            lowinfo.generateRoomNames(numberOfRooms);
-            lowinfo.createDates();
+            lowinfo.generateRoomNames(numberOfRooms); // Every day of a new room is available
             lowinfo.createReservations();
             
             if (hotelExists(hotelName)) {
@@ -58,6 +179,7 @@ public class HotelTracker {
 
             Hotel newHotel = new Hotel(highinfo, lowinfo);
             this.hotels.add(newHotel);
+            publishHotels();
 
             
              return 0;
@@ -77,13 +199,7 @@ public class HotelTracker {
      * @return The Hotel object with the specified name, or null if not found.
      */
     public Hotel displayHighLevelInfo(String hotelName) {
-        for (Hotel hotel : hotels) {
-            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
-                
-                return hotel;
-            }
-        }
-		return null;
+        return publishedHotels.get(hotelName);
     }
     
     
@@ -96,12 +212,7 @@ public class HotelTracker {
      * @return The Hotel object containing the low-level information, or null if not found.
      */
     public Hotel displayLowLevelInfoDate(String hotelName, int selectedDate) {
-        for (Hotel hotel : hotels) {
-            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
-            	return hotel;
-            }
-        }
-        return null;
+        return publishedHotels.get(hotelName);
     }
     
     
@@ -113,29 +224,10 @@ public class HotelTracker {
      * @return The Room object, or null if the room number is invalid or hotel not found.
      */
     public Room displayLowLevelInfoRoom(String hotelName, int roomNumber) {
-        for (Hotel hotel : hotels) {
-            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
-                LowLevelInfo lowInfo = hotel.getLowLevelInfo();
-
-                if (lowInfo != null) {
-                    if (roomNumber < 1 || roomNumber > lowInfo.getRooms().size()) {
-
-                        return null;
-                    }
-
-                    Room room = lowInfo.getRoom(roomNumber);
-                    return room;
-
-                    
-                    
-                } else {
-                   
-
-                }
-                return null;
-            }
+        Hotel hotel = publishedHotels.get(hotelName);
+        if (hotel != null && hotel.getLowLevelInfo() != null) {
+            return hotel.getLowLevelInfo().getRoom(roomNumber); // Null if the room number is invalid
         }
-
         return null;
     }
 
@@ -149,31 +241,28 @@ public class HotelTracker {
      * @return The Reservation object, or null if no reservation found for the guest.
      */
     public Reservation displayLowLevelInfoGuest(String hotelName, String guestName) {
-        for (Hotel hotel : hotels) {
-            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
-                LowLevelInfo lowInfo = hotel.getLowLevelInfo();
-
-                if (lowInfo != null) {
-                    for (Reservation reservation : lowInfo.getReservations()) {
-                        if (guestName.equals(reservation.getGuestName())) {
-
-
-                            return reservation;
-                        }
-                    }
-                    
-                    return null;
-                } else {
-                   
-                }
-                return null;
-            }
+        Hotel hotel = publishedHotels.get(hotelName);
+        if (hotel != null && hotel.getLowLevelInfo() != null) {
+            return hotel.getLowLevelInfo().findReservation(guestName);
         }
-       
         return null;
     }
     
     
+    /**
+     * Returns the latest published snapshot of a hotel, for reads that may run concurrently with
+     * bookings, such as reports and the GUI. Unlike the display methods, which return the live
+     * objects of the hotel, the snapshot never changes and never has to be locked.
+     * 
+     * @param hotelName The name of the hotel.
+     * @return The immutable HotelSnapshot of the hotel, or null if not found.
+     */
+    public HotelSnapshot getHotelSnapshot(String hotelName) {
+        Hotel hotel = publishedHotels.get(hotelName);
+        return hotel != null ? hotel.getSnapshot() : null;
+    }
+    
+    
     /**
      * Changes the name of a hotel.
      * 
@@ -196,6 +285,10 @@ public class HotelTracker {
             }
             if (hotel.getHighLevelInfo().getHotelName().equals(oldName)) {
                 hotel.getHighLevelInfo().setHotelName(newName);
+                quoteCache.invalidateHotel(hotel); // Cached quotes carry the old name
+                lostDemand.renameHotel(oldName, newName);
+                hotel.publishSnapshot();
+                publishHotels();
                 
                 return 0;
             }
@@ -213,41 +306,30 @@ public class HotelTracker {
      * @return The number of rooms actually added, or 0 if the hotel is not found or full.
      */
     public int addRoom(String hotelName, int newRooms) {
-        double basePrice = 1299.00;
+        long basePrice = Money.fromAmount(1299.00);
         for (Hotel hotel : hotels) {
             if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
                 int currentRoomCount = hotel.getLowLevelInfo().getRooms().size();
-                int roomsToAdd = Math.min(newRooms, 50 - currentRoomCount);
+                int roomsToAdd = Math.min(newRooms, maxRoomsPerHotel - currentRoomCount);
 
                 if (roomsToAdd <= 0) {
                     
                     return 0;
                 }
+                basePrice = hotel.getLowLevelInfo().getRoom(1).getPriceCents(); // Every new room starts at the hotel's price
 
-                for (int i = 0; i < roomsToAdd; i++) {
-                    int roomIndex = currentRoomCount + i;
-                    int roomType = (roomIndex % 3) + 1; // This will cycle through 1, 2, 3
-
-                    switch (roomType) {
-                        case 1:
-                            basePrice = hotel.getLowLevelInfo().getRoom(1).getPrice();
-                            StandardRoom standardRoom = new StandardRoom("Room " + (roomIndex + 1), roomType, basePrice);
-                            hotel.getLowLevelInfo().addRoom(standardRoom);
-                            break;
-                        case 2:
-                            basePrice = hotel.getLowLevelInfo().getRoom(1).getPrice(); 
-                            DeluxeRoom deluxeRoom = new DeluxeRoom("Room " + (roomIndex + 1), roomType, basePrice);
-                            hotel.getLowLevelInfo().addRoom(deluxeRoom);
-                            break;
-                        case 3:
-                            basePrice = hotel.getLowLevelInfo().getRoom(1).getPrice();
-                            ExecutiveRoom executiveRoom = new ExecutiveRoom("Room " + (roomIndex + 1), roomType, basePrice);
-                            hotel.getLowLevelInfo().addRoom(executiveRoom);
-                            break;
-                    }
-                }
+                hotel.getLowLevelInfo().generateRooms(roomsToAdd, basePrice);
 
                 hotel.getHighLevelInfo().setNumberOfRooms(currentRoomCount + roomsToAdd);
+                quoteCache.invalidateHotel(hotel);
+
+                if (!hotel.getLowLevelInfo().getWaitlist().isEmpty()) { // Otherwise the new rooms stay unmaterialized
+                    List<Room> rooms = hotel.getLowLevelInfo().getRooms();
+                    for (int i = currentRoomCount; i < rooms.size(); i++) {
+                        fulfilWaitlist(hotel, rooms.get(i), 1, 31);
+                    }
+                }
+                hotel.publishSnapshot();
                 
                 return roomsToAdd;
             }
@@ -259,13 +341,13 @@ public class HotelTracker {
     
     
     /**
-     * Removes a room from a hotel if it has no reservations.
+     * Removes a room from a hotel if it has no reservations and no active holds.
      * 
      * @param hotelName The name of the hotel.
      * @param roomNumber The room number to be removed.
      * @return An integer status code: 
      *         0 - Success, room removed;
-     *         1 - Room has reservations;
+     *         1 - Room has reservations or active holds;
      *         2 - Hotel not found;
      *         3 - Hotel name mismatch;
      *         4 - Invalid room number.
@@ -282,16 +364,28 @@ public class HotelTracker {
 
                     Room room = lowInfo.getRoom(roomNumber);
                     boolean hasReservations = false;
-                    for (Reservation reservation : lowInfo.getReservations()) {
-                        if (reservation.getRoom().getRoomName().equals(room.getRoomName())) {
-                            hasReservations = true;
-                            break;
+                    if (room.getBookedMask() != 0) { // A room without booked nights has no reservations or holds
+                        for (Reservation reservation : lowInfo.getReservations()) {
+                            if (reservation.getRoom() == room) {
+                                hasReservations = true;
+                                break;
+                            }
+                        }
+                        if (!hasReservations) {
+                            for (RoomHold hold : holds.values()) {
+                                if (hold.getRoom() == room) {
+                                    hasReservations = true; // Confirming the hold would book the removed room
+                                    break;
+                                }
+                            }
                         }
                     }
 
                     if (!hasReservations) {
-                        lowInfo.getRooms().remove(roomNumber - 1);
+                        lowInfo.removeRoom(roomNumber);
                         hotel.getHighLevelInfo().setNumberOfRooms(hotel.getHighLevelInfo().getNumberOfRooms() - 1);
+                        quoteCache.invalidateRooms(hotel, room.getRoomType(), 1, 32);
+                        hotel.publishSnapshot();
                         
                         return 0;
                     } else {
@@ -322,16 +416,11 @@ public class HotelTracker {
         Hotel hotel = findHotel(hotelName);
         if (hotel != null) {
             LowLevelInfo lowLevelInfo = hotel.getLowLevelInfo();
-            if (lowLevelInfo.canUpdateRoomPrice(newPrice, lowLevelInfo)) {
-                for (Room room : lowLevelInfo.getRooms()) {
-                	if (room instanceof StandardRoom) {
-                        room.setPrice(newPrice);
-                    } else if (room instanceof DeluxeRoom) {
-                        room.setPrice(newPrice * 1.20); // 20% increase
-                    } else if (room instanceof ExecutiveRoom) {
-                        room.setPrice(newPrice * 1.35); // 35% increase
-                    }
-                }
+            long newPriceCents = Money.fromAmount(newPrice);
+            if (lowLevelInfo.canUpdateRoomPrice(newPriceCents, lowLevelInfo)) {
+                lowLevelInfo.setRoomPrices(newPriceCents); // Deluxe Rooms cost 20% more, Executive Rooms 35%
+                quoteCache.invalidateHotel(hotel);
+                hotel.publishSnapshot();
                 
                 return 0;
             } else {
@@ -362,6 +451,19 @@ public class HotelTracker {
     }
     
     
+    /**
+     * Replaces the read-only copy of the hotels by name used by the display methods, after a hotel
+     * was created, renamed or removed. Readers keep using the copy they got, which is never changed.
+     */
+    private void publishHotels() {
+        LinkedHashMap<String, Hotel> byName = new LinkedHashMap<String, Hotel>();
+        for (Hotel hotel : hotels) {
+            byName.put(hotel.getHighLevelInfo().getHotelName(), hotel);
+        }
+        publishedHotels = Collections.unmodifiableMap(byName);
+    }
+    
+    
     /**
      * Checks if a hotel with the specified name exists in the tracker.
      * 
@@ -369,8 +471,8 @@ public class HotelTracker {
      * @return True if the hotel exists, false otherwise.
      */
     private boolean hotelExists(String hotelName) { 
-        for (Hotel hotel : hotels) {
-            if (hotel.getHighLevelInfo().getHotelName().equalsIgnoreCase(hotelName)) {
+        for (int i = 0; i < hotels.size(); i++) {
+            if (hotels.get(i).getHighLevelInfo().getHotelName().equalsIgnoreCase(hotelName)) {
                 return true;
             }
         }
@@ -396,7 +498,14 @@ public class HotelTracker {
                 if (lowInfo != null) {
                     for (Reservation reservation : lowInfo.getReservations()) {
                         if (guestName.equals(reservation.getGuestName())) {
-                            lowInfo.getReservations().remove(reservation);
+                            lowInfo.removeReservation(reservation);
+
+                            // Return the nights to inventory and give them to waiting guests
+                            Room room = reservation.getRoom();
+                            lowInfo.releaseNights(room, reservation.getCheckInDate(), reservation.getCheckOutDate());
+                            quoteCache.invalidateRooms(hotel, room.getRoomType(), reservation.getCheckInDate(), reservation.getCheckOutDate());
+                            fulfilWaitlist(hotel, room, reservation.getCheckInDate(), reservation.getCheckOutDate());
+                            hotel.publishSnapshot();
                             
                             return 0;
                         }
@@ -416,7 +525,9 @@ public class HotelTracker {
     
     
     /**
-     * Removes a hotel from the list of hotels.
+     * Removes a hotel from the list of hotels. Its active holds, waiting requests and cached quotes
+     * are dropped before the hotel is closed, so nothing uses the hotel afterwards; its holds can no
+     * longer be confirmed or released.
      * 
      * @param hotelName The name of the hotel to be removed.
      * @return An integer status code: 
@@ -427,6 +538,18 @@ public class HotelTracker {
         for (Hotel hotel : hotels) {
             if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
                 hotels.remove(hotel);
+                publishHotels();
+                lostDemand.removeHotel(hotelName);
+                holds.values().removeIf(hold -> {
+                    if (hold.getHotel() != hotel) {
+                        return false;
+                    }
+                    hold.deactivate(); // The timing wheel drops inactive holds
+                    return true;
+                });
+                hotel.getLowLevelInfo().getWaitlist().clear();
+                quoteCache.invalidateHotel(hotel);
+                hotel.close(); // Last, once nothing refers to the hotel any more
 
                 return 0;
             }
@@ -435,6 +558,130 @@ public class HotelTracker {
         return 1;
     }
 
+    /**
+     * Moves the reservations of a room type in a hotel so they occupy as few rooms as possible,
+     * recovering runs of free nights that multi-night stays can use.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param roomType The type of room to repack.
+     * @param maxMoves The maximum number of reservations that may be moved.
+     * @return The number of reservations moved;
+     *         -1 if repacking would move more than maxMoves reservations, nothing is moved;
+     *         -2 if the hotel is not found;
+     *         -3 if a reservation fits no room around the nights that cannot be moved, such as
+     *         held nights, nothing is moved.
+     */
+    public int repackRooms(String hotelName, int roomType, int maxMoves) {
+        for (Hotel hotel : hotels) {
+            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
+                int moves = new RoomRepacker(hotel.getLowLevelInfo()).repack(roomType, maxMoves);
+                if (moves > 0) {
+                    quoteCache.invalidateRooms(hotel, roomType, 1, 32);
+                    // Repacking opens longer runs of free nights that waiting stays may now fit in
+                    for (Room room : hotel.getLowLevelInfo().getRoomsOfType(roomType)) {
+                        fulfilWaitlist(hotel, room, 1, 31);
+                    }
+                    hotel.publishSnapshot();
+                }
+                return moves;
+            }
+        }
+        return -2;
+    }
+    
+    
+    /**
+     * Changes how a hotel chooses the room a new booking is assigned to.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param strategy The RoomAssignmentStrategy to use, e.g. a BestFitAssignment.
+     * @return An integer status code: 
+     *         0 - Success, strategy changed;
+     *         1 - Hotel not found.
+     */
+    public int setRoomAssignmentStrategy(String hotelName, RoomAssignmentStrategy strategy) {
+        for (Hotel hotel : hotels) {
+            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
+                hotel.getLowLevelInfo().setAssignmentStrategy(strategy);
+
+                return 0;
+            }
+        }
+        return 1;
+    }
+    
+    
+    /**
+     * Enables or disables occupancy-driven pricing for a hotel. When enabled, the price of each
+     * night of a room type is multiplied according to the fraction of the rooms of that type
+     * already booked that night, following the type's OccupancyCurve.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param enabled True to price by occupancy, false to use the normal and modified rates only.
+     * @return An integer status code: 
+     *         0 - Success, pricing changed;
+     *         1 - Hotel not found.
+     */
+    public int setDynamicPricing(String hotelName, boolean enabled) {
+        for (Hotel hotel : hotels) {
+            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
+                hotel.getLowLevelInfo().getDynamicPricing().setEnabled(enabled);
+                quoteCache.invalidateHotel(hotel);
+
+                return 0;
+            }
+        }
+        return 1;
+    }
+    
+    
+    /**
+     * Moves the room inventory of a hotel (booked days, prices and per-day availability bitsets)
+     * off the Java heap, or back onto it. Off the heap, the inventory of a very large hotel no longer
+     * counts towards the heap size, but collections are not shorter, and scanning it is slower;
+     * the memory is returned once the hotel is removed and its buffers are collected.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param offHeap True to keep the inventory off the heap, false to keep it in Java arrays.
+     * @return An integer status code: 
+     *         0 - Success, inventory moved;
+     *         1 - Hotel not found.
+     */
+    public int setOffHeapInventory(String hotelName, boolean offHeap) {
+        for (Hotel hotel : hotels) {
+            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
+                hotel.getLowLevelInfo().setOffHeap(offHeap);
+
+                return 0;
+            }
+        }
+        return 1;
+    }
+    
+    
+    /**
+     * Changes the curve mapping occupancy to price multipliers for a room type in a hotel.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param roomType The room type (1-3).
+     * @param curve The new OccupancyCurve.
+     * @return An integer status code: 
+     *         0 - Success, curve changed;
+     *         1 - Hotel not found.
+     */
+    public int setOccupancyCurve(String hotelName, int roomType, OccupancyCurve curve) {
+        for (Hotel hotel : hotels) {
+            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
+                hotel.getLowLevelInfo().getDynamicPricing().setCurve(roomType, curve);
+                quoteCache.invalidateRooms(hotel, roomType, 1, 32);
+
+                return 0;
+            }
+        }
+        return 1;
+    }
+    
+    
     /**
      * Changes the rates for a specific day in a hotel's low-level information.
      * 
@@ -450,6 +697,57 @@ public class HotelTracker {
             if(hotel.getHighLevelInfo().getHotelName().equals(hotelName)){
                 double drate = rate;
                 hotel.getLowLevelInfo().changeRates(day, drate);
+                quoteCache.invalidateDates(hotel, day, day + 1);
+
+                return 0;
+            }
+        }
+        return 1;
+    }
+    
+    
+    /**
+     * Changes the rates for every day from one day to another in a hotel, e.g. for a season.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param firstDay The first day of the range (1-31).
+     * @param lastDay The last day of the range, inclusive (1-31).
+     * @param rate The new rate to set for each day of the range.
+     * @return An integer status code: 
+     *         0 - Success, rates changed;
+     *         1 - Hotel not found;
+     *         2 - Invalid days.
+     */
+    public int changeRateRange(String hotelName, int firstDay, int lastDay, int rate) {
+        return changeRatePattern(hotelName, ModifiedDates.rangeMask(firstDay, lastDay), rate);
+    }
+    
+    
+    /**
+     * Changes the rates for a set of days in a hotel in one call, e.g. every weekend of the month.
+     * The hotel is looked up and its cached quotes are invalidated once for all the days.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param dayMask The days to change, with bit (day - 1) set for each day, e.g. from ModifiedDates.weeklyMask.
+     * @param rate The new rate to set for each of the days.
+     * @return An integer status code: 
+     *         0 - Success, rates changed;
+     *         1 - Hotel not found;
+     *         2 - Invalid days.
+     */
+    public int changeRatePattern(String hotelName, int dayMask, int rate) {
+        dayMask &= Room.ALL_DAYS;
+        if (dayMask == 0) {
+            return 2;
+        }
+
+        for (Hotel hotel : hotels) {
+            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
+                hotel.getLowLevelInfo().changeRatePattern(dayMask, rate);
+
+                int firstDay = Integer.numberOfTrailingZeros(dayMask) + 1;
+                int lastDay = 32 - Integer.numberOfLeadingZeros(dayMask);
+                quoteCache.invalidateDates(hotel, firstDay, lastDay + 1);
 
                 return 0;
             }
@@ -476,109 +774,40 @@ public class HotelTracker {
      *         5 - Room not available;
      *         6 - Low-level information not available;
      *         7 - Hotel not found;
-     *         8 - Invalid dates.
+     *         8 - Invalid dates;
+     *         any other status code registered for a discount rule in the DiscountRegistry.
      */
     public int simulateBooking(String hotelName, String guestName, int checkInDate, int checkOutDate, int roomType, String discountCode) {
+        expireHolds(System.currentTimeMillis());
+
         if (checkInDate < checkOutDate && checkInDate > 0 && checkOutDate <= 31) {
-            for (Hotel hotel : hotels) {
+            for (int i = 0; i < hotels.size(); i++) { // Indexed loop: no iterator is allocated per booking
+                Hotel hotel = hotels.get(i);
                 if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
                     LowLevelInfo lowInfo = hotel.getLowLevelInfo();
                     if (lowInfo != null) {
-                        for (Room room : lowInfo.getRooms()) {
-                            if (room.getRoomType() == roomType) {
-                                boolean isAvailable = true;
-                                for (int i = checkInDate; i < checkOutDate; i++) {     // Check if the room is available for the entire stay
-                                    if (!room.getAvailabilityDay(i)) {
-                                        isAvailable = false;
-                                        break;
-                                    }
-                                }
-                                
-                                
-
-                                if (isAvailable) {
-                                    Reservation reservation = new Reservation(guestName, checkInDate, checkOutDate, room, 0.00);
-                                    lowInfo.getReservations().add(reservation);
-
-                                     // Mark the room as unavailable for the reservation dates
-                                    for (int i = checkInDate; i < checkOutDate; i++) {
-                                        room.setAvailabilityDay(i, false);
-                                    }
-                                    
-                                    // Computing for the price on days with modified rates
-                                    double basePrice = room.getPrice();
-                                    NormalDates normal = new NormalDates(lowInfo.getModifiedDates());
-                                    ModifiedDates modified = lowInfo.getModifiedDates();
-
-                                    // Calculate the price for normal and modified dates
-                                    normal.computePrice(checkInDate, checkOutDate, basePrice);
-                                    modified.computePrice(checkInDate, checkOutDate, basePrice);
-
-                                    double normalPrice = normal.getPrice();
-                                    double modifiedPrice = modified.getPrice();
-                                    
-                                    // price is sum of prices on normal dates and modified dates
-                                    double price = normalPrice + modifiedPrice;
-                                    double priceOnDay = 0;
-                                    
-                                    
-                                    // Find the price on a modified date if any
-                                    for(int i = checkInDate; i<checkOutDate; i++){
-                                        if(modified.getModifiedDate(i)!=0){
-                                        priceOnDay = room.getPrice() * modified.getModifiedRate(checkInDate);
-                                        break;
-                                        }
-                                    }
-                                    
-                                   // If no modified price found, use the room's base price
-                                    if(priceOnDay == 0)
-                                        priceOnDay = room.getPrice();
-
-
-                                    // Apply discount based on discount code
-                                    
-                                    if ("I_WORK_HERE".equals(discountCode)) {
-                                    	
-                                    	// System.out.println("Discount: \"I_WORK_HERE\"");
-                                    	I_WORK_HERE iWorkHereDiscount = new I_WORK_HERE(price);
-                                        reservation.setReservationTotal(iWorkHereDiscount.applyDiscount());
-                                     
-                                        return 1;
-      
-                                    }
-                                    
-                                    else if (("STAY4_GET1".equals(discountCode) && ((reservation.getCheckOutDate() - reservation.getCheckInDate()) + 1) >= 5)) {
-                                    	
-                                    	
-                                    	// System.out.println("Discount: \"STAY4_GET1\"");         	
-                                    	STAY4_GET1 stay4Get1Discount = new STAY4_GET1(price, priceOnDay);
-                                        reservation.setReservationTotal(stay4Get1Discount.applyDiscount());
-   
-                                        return 2;
-                                    	
-                                    }
-                                    else if (("PAYDAY".equals(discountCode)) && ((reservation.getCheckInDate() <= 15 && 15 < reservation.getCheckOutDate()) || (reservation.getCheckInDate() <= 30 && 30 < reservation.getCheckOutDate()))) {
-                                    	
-                                    	
-                                    	// System.out.println("Discount: \"PAYDAY\"");
-                                    	PAYDAY paydayDiscount = new PAYDAY(price);
-                                        reservation.setReservationTotal(paydayDiscount.applyDiscount());
-    
-                                        return 3;
-                                    	
-                                    }
-                                    else {
-                                    	
-                                    	// System.out.println("Discount: No Discount");                           
-                                    	reservation.setReservationTotal(price);
-
-                                        return 4;
-                                    }
-
-                                }
+                        Room room = lowInfo.findAvailableRoom(roomType, checkInDate, checkOutDate);
+                        if (room == null && repackLimit > 0
+                                && lowInfo.getDynamicPricing().hasFreeRoomEveryNight(roomType, checkInDate, checkOutDate)) {
+                            // Try to open a room by moving a few reservations to other rooms of the type
+                            room = new RoomRepacker(lowInfo).openSlot(roomType, checkInDate, checkOutDate, repackLimit);
+                            if (room != null) {
+                                quoteCache.invalidateRooms(hotel, roomType, 1, 32);
                             }
                         }
+                        if (room != null) {
+                            // Price the stay before its own nights raise the occupancy, as quoted
+                            int statusCode = createReservation(lowInfo, room, guestName, checkInDate, checkOutDate, discountCode);
+
+                            // Mark the room as unavailable for the reservation dates
+                            lowInfo.reserveNights(room, checkInDate, checkOutDate);
+                            quoteCache.invalidateRooms(hotel, roomType, checkInDate, checkOutDate);
+                            hotel.publishSnapshot();
+
+                            return statusCode;
+                        }
                         
+                        lostDemand.recordUnavailable(hotelName, roomType, checkInDate, checkOutDate);
                         return 5;
                     } else {
                         
@@ -589,6 +818,10 @@ public class HotelTracker {
             
             return 7;
         } else {
+            Hotel hotel = findHotel(hotelName);
+            if (hotel != null) {
+                lostDemand.recordInvalidDates(hotel.getHighLevelInfo().getHotelName(), roomType);
+            }
            
             return 8;
             
@@ -599,30 +832,633 @@ public class HotelTracker {
     
     
     /**
-     * Retrieves and returns a list of hotel names.
+     * Simulates a booking like simulateBooking, identified by an idempotency key chosen by the caller.
+     * If a booking with the same key was made in the last 10 minutes, its original status code is
+     * returned without checking availability, pricing or booking again, so retried requests
+     * cannot book a guest twice.
+     * 
+     * @param idempotencyKey The key identifying the request, the same for every retry; null to always book.
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to apply.
+     * @return The status code of simulateBooking for the first request with this key.
+     */
+    public int simulateBooking(String idempotencyKey, String hotelName, String guestName, int checkInDate, int checkOutDate, int roomType, String discountCode) {
+        if (idempotencyKey == null) {
+            return simulateBooking(hotelName, guestName, checkInDate, checkOutDate, roomType, discountCode);
+        }
+
+        int previous = bookingRequests.lookup(idempotencyKey, System.currentTimeMillis());
+        if (previous != IdempotencyTable.NOT_FOUND) {
+            return previous;
+        }
+
+        int statusCode = simulateBooking(hotelName, guestName, checkInDate, checkOutDate, roomType, discountCode);
+        bookingRequests.record(idempotencyKey, statusCode, System.currentTimeMillis());
+        return statusCode;
+    }
+    
+    
+    /**
+     * Creates the reservation for a room, pricing it and applying the discount. The caller blocks the nights of the room.
      * 
-     * This method iterates through the list of Hotel objects and collects the names of hotels 
-     * from their high-level information. It first clears the existing list of hotel names to avoid 
-     * duplicates if the method is called multiple times. If no hotel names are found, it returns null. 
-     * Otherwise, it returns the list of hotel names.
+     * @param lowInfo The low-level information of the hotel.
+     * @param room The booked room.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param discountCode The discount code to apply.
+     * @return The status code of the discount applied, or 4 if no discount applied.
+     */
+    private int createReservation(LowLevelInfo lowInfo, Room room, String guestName, int checkInDate, int checkOutDate, String discountCode) {
+        // Computing for the price on days with normal and modified rates
+        long basePrice = room.getPriceCents();
+        long price = lowInfo.computeStayPrice(basePrice, room.getRoomType(), checkInDate, checkOutDate);
+        long priceOnDay = lowInfo.getPriceOnDay(basePrice, room.getRoomType(), checkInDate, checkOutDate);
+
+        return createReservation(lowInfo, room, guestName, checkInDate, checkOutDate, price, priceOnDay, discountCode);
+    }
+    
+    
+    /**
+     * Creates the reservation for a room at a stay price computed earlier, applying the discount.
+     * The caller blocks the nights of the room.
      * 
-     * @return An ArrayList of Strings containing the names of hotels. Returns null if no hotel names are found.
+     * @param lowInfo The low-level information of the hotel.
+     * @param room The booked room.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param price The price of the stay before any discount, in cents.
+     * @param priceOnDay The price of the night a discount rule may refer to, in cents.
+     * @param discountCode The discount code to apply.
+     * @return The status code of the discount applied, or 4 if no discount applied.
      */
-    public ArrayList<String> displayHotelList() {
-        hotelNames.clear(); // Clear the list to avoid duplicates if the method is called multiple times
-        
+    private int createReservation(LowLevelInfo lowInfo, Room room, String guestName, int checkInDate, int checkOutDate,
+            long price, long priceOnDay, String discountCode) {
+        Reservation reservation = new Reservation(guestName, checkInDate, checkOutDate, room, 0);
+        lowInfo.addReservation(reservation);
+
+        // Apply discount based on discount code
+        DiscountRule rule = discounts.getRule(discountCode);
+        if (rule != null && rule.isEligible(checkInDate, checkOutDate) && rule.redeem(discountCode)) {
+            reservation.setReservationTotal(rule.applyDiscount(price, priceOnDay));
+
+            return rule.getStatusCode();
+        }
+
+        reservation.setReservationTotal(price);
+
+        return 4;
+    }
+    
+    
+    /**
+     * Holds a room of a type in a hotel for a stay for a limited time, e.g. while the guest pays.
+     * The room is blocked as if booked until the hold is confirmed with confirmHold, released with
+     * releaseHold, or expires. Expired holds are released the next time the tracker books, holds,
+     * confirms or expires holds.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param roomType The type of room requested.
+     * @param checkInDate The check-in date for the stay.
+     * @param checkOutDate The check-out date for the stay.
+     * @param ttlMillis How long the hold lasts, in milliseconds.
+     * @return The hold id (1 or more) on success, or the negated simulateBooking status code:
+     *         -5 - Room not available;
+     *         -6 - Low-level information not available;
+     *         -7 - Hotel not found;
+     *         -8 - Invalid dates.
+     */
+    public long holdRoom(String hotelName, int roomType, int checkInDate, int checkOutDate, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        expireHolds(now);
+
+        if (checkInDate >= checkOutDate || checkInDate <= 0 || checkOutDate > 31) {
+            return -8;
+        }
+
+        for (Hotel hotel : hotels) {
+            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
+                LowLevelInfo lowInfo = hotel.getLowLevelInfo();
+                if (lowInfo == null) {
+                    return -6;
+                }
+
+                Room room = lowInfo.findAvailableRoom(roomType, checkInDate, checkOutDate);
+                if (room == null) {
+                    return -5;
+                }
+
+                // Price the stay before its own nights raise the occupancy, as quoted
+                long basePrice = room.getPriceCents();
+                long price = lowInfo.computeStayPrice(basePrice, room.getRoomType(), checkInDate, checkOutDate);
+                long priceOnDay = lowInfo.getPriceOnDay(basePrice, room.getRoomType(), checkInDate, checkOutDate);
+
+                lowInfo.reserveNights(room, checkInDate, checkOutDate);
+                quoteCache.invalidateRooms(hotel, roomType, checkInDate, checkOutDate);
+                hotel.publishSnapshot(); // Held nights read as booked
+
+                RoomHold hold = new RoomHold(nextHoldId++, hotel, room, checkInDate, checkOutDate, price, priceOnDay);
+                holds.put(hold.getHoldId(), hold);
+                holdWheel.schedule(hold, now + ttlMillis);
+                return hold.getHoldId();
+            }
+        }
+        return -7;
+    }
+    
+    
+    /**
+     * Turns an active hold into a reservation for a guest, at the price the stay had when it was held.
+     * 
+     * @param holdId The id returned by holdRoom.
+     * @param guestName The name of the guest making the booking.
+     * @param discountCode The discount code to apply.
+     * @return A simulateBooking status code: the status code of the discount applied, 4 if no
+     *         discount applied, or 5 if the hold is unknown, was released, has expired or its hotel
+     *         was removed.
+     */
+    public int confirmHold(long holdId, String guestName, String discountCode) {
+        expireHolds(System.currentTimeMillis());
+
+        RoomHold hold = holds.remove(holdId);
+        if (hold == null) {
+            return 5;
+        }
+
+        hold.deactivate(); // The nights stay blocked, now by the reservation
+        int statusCode = createReservation(hold.getHotel().getLowLevelInfo(), hold.getRoom(), guestName,
+                hold.getCheckInDate(), hold.getCheckOutDate(), hold.getPrice(), hold.getPriceOnDay(), discountCode);
+        hold.getHotel().publishSnapshot();
+        return statusCode;
+    }
+    
+    
+    /**
+     * Releases an active hold before it expires, making its room available again.
+     * 
+     * @param holdId The id returned by holdRoom.
+     * @return An integer status code: 
+     *         0 - Success, hold released;
+     *         1 - Hold not found, already released or expired.
+     */
+    public int releaseHold(long holdId) {
+        RoomHold hold = holds.remove(holdId);
+        if (hold == null) {
+            return 1;
+        }
+
+        releaseHold(hold);
+        return 0;
+    }
+    
+    
+    /**
+     * Releases every hold whose time has run out. Can be called periodically, e.g. from a scheduled
+     * executor, so rooms of abandoned holds return to inventory without waiting for the next booking.
+     * 
+     * @return The number of holds that expired.
+     */
+    public int expireHolds() {
+        return expireHolds(System.currentTimeMillis());
+    }
+    
+    
+    /**
+     * Releases every hold whose deadline is at or before a given time.
+     * 
+     * @param nowMillis The current time in milliseconds.
+     * @return The number of holds that expired.
+     */
+    public int expireHolds(long nowMillis) {
+        expiredHolds.clear();
+        holdWheel.advance(nowMillis, expiredHolds);
+
+        for (int i = 0; i < expiredHolds.size(); i++) {
+            RoomHold hold = expiredHolds.get(i);
+            holds.remove(hold.getHoldId());
+            releaseHold(hold);
+        }
+        return expiredHolds.size();
+    }
+    
+    
+    /**
+     * Deactivates a hold and makes its nights available again.
+     * 
+     * @param hold The hold to release.
+     */
+    private void releaseHold(RoomHold hold) {
+        hold.deactivate();
+        hold.getHotel().getLowLevelInfo().releaseNights(hold.getRoom(), hold.getCheckInDate(), hold.getCheckOutDate());
+        quoteCache.invalidateRooms(hold.getHotel(), hold.getRoom().getRoomType(), hold.getCheckInDate(), hold.getCheckOutDate());
+        fulfilWaitlist(hold.getHotel(), hold.getRoom(), hold.getCheckInDate(), hold.getCheckOutDate());
+        hold.getHotel().publishSnapshot();
+    }
+    
+    
+    /**
+     * Puts a booking request on the waitlist of a hotel, e.g. after simulateBooking returned 5.
+     * Whenever nights of a room of the requested type are freed, by a cancellation, an expired
+     * or released hold, or new rooms, waiting requests that fit the freed nights are booked
+     * immediately, lowest priority value first and in joining order for equal priorities.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to apply when the request is booked.
+     * @param priority The priority of the request; lower values are served first.
+     * @return An integer status code: 
+     *         0 - Success, request added to the waitlist;
+     *         1 - Hotel not found;
+     *         2 - Invalid dates.
+     */
+    public int joinWaitlist(String hotelName, String guestName, int checkInDate, int checkOutDate, int roomType, String discountCode, int priority) {
+        if (checkInDate >= checkOutDate || checkInDate <= 0 || checkOutDate > 31) {
+            return 2;
+        }
+
+        Hotel hotel = findHotel(hotelName);
+        if (hotel == null) {
+            return 1;
+        }
+
+        hotel.getLowLevelInfo().getWaitlist().add(guestName, checkInDate, checkOutDate, roomType, discountCode, priority);
+        return 0;
+    }
+    
+    
+    /**
+     * Removes every waiting request of a guest from the waitlist of a hotel.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest.
+     * @return The number of requests removed, or -1 if the hotel is not found.
+     */
+    public int leaveWaitlist(String hotelName, String guestName) {
+        Hotel hotel = findHotel(hotelName);
+        if (hotel == null) {
+            return -1;
+        }
+        return hotel.getLowLevelInfo().getWaitlist().remove(guestName);
+    }
+    
+    
+    /**
+     * Books waiting requests into the free nights of a room around a range of freed nights.
+     * Each free night in the range belongs to a run of free nights; the waitlist is asked only for
+     * requests of the room's type that start and end inside that run, and the best one is booked
+     * until no waiting request fits anymore.
+     * 
+     * @param hotel The hotel of the room.
+     * @param room The room whose nights were freed.
+     * @param fromDay The first freed night (inclusive).
+     * @param toDay The last freed night (exclusive).
+     * @return The number of waiting requests booked.
+     */
+    private int fulfilWaitlist(Hotel hotel, Room room, int fromDay, int toDay) {
+        LowLevelInfo lowInfo = hotel.getLowLevelInfo();
+        Waitlist waitlist = lowInfo.getWaitlist();
+        int booked = 0;
+
+        int day = fromDay;
+        while (day < toDay && !waitlist.isEmpty()) {
+            int mask = room.getBookedMask();
+            if ((mask & (1 << (day - 1))) != 0) {
+                day++;
+                continue;
+            }
+
+            // The run of free nights containing the day, ending at the latest possible check-out
+            int runStart = day - Room.freeDaysBefore(mask, day);
+            int runEnd = Math.min(31, day + Room.freeDaysFrom(mask, day));
+            WaitlistEntry entry = waitlist.takeBest(room.getRoomType(), runStart, runEnd);
+            if (entry == null) {
+                day = Math.max(runEnd, day + 1);
+                continue;
+            }
+
+            createReservation(lowInfo, room, entry.getGuestName(), entry.getCheckInDate(), entry.getCheckOutDate(), entry.getDiscountCode());
+            lowInfo.reserveNights(room, entry.getCheckInDate(), entry.getCheckOutDate());
+            quoteCache.invalidateRooms(hotel, room.getRoomType(), entry.getCheckInDate(), entry.getCheckOutDate());
+            booked++;
+        }
+        return booked;
+    }
+    
+    
+    /**
+     * Books several rooms, possibly of different types, for the same stay in a hotel, all or nothing.
+     * The free rooms of each requested type are counted first, so no room is claimed unless the whole
+     * group fits. Each room is then chosen by the hotel's room assignment strategy.
+     * 
+     * Every room is priced before any room of the group is claimed, as simulateBooking prices a stay
+     * before its own nights raise the occupancy, so the group does not pay for its own occupancy.
+     * 
+     * All reservations of the group are made for the same guest and share a group id.
+     * The discount code applies to every room of the group; a single-use code is redeemed once.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param roomTypes The type of each room to book, e.g. {1, 1, 2} for two Standard and one Deluxe room.
+     * @param discountCode The discount code to apply.
+     * @return The group id (1 or more) of the reservations on success, or the negated simulateBooking status code:
+     *         -5 - Not enough rooms available;
+     *         -6 - Low-level information not available;
+     *         -7 - Hotel not found;
+     *         -8 - Invalid dates or no rooms requested.
+     */
+    public int simulateGroupBooking(String hotelName, String guestName, int checkInDate, int checkOutDate, int[] roomTypes, String discountCode) {
+        expireHolds(System.currentTimeMillis());
+
+        if (checkInDate >= checkOutDate || checkInDate <= 0 || checkOutDate > 31 || roomTypes == null
+                || roomTypes.length == 0) {
+            return -8;
+        }
+
         for (Hotel hotel : hotels) {
-            String hotelName = hotel.getHighLevelInfo().getHotelName();
-            if (hotelName != null) {
-                hotelNames.add(hotelName);
+            if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
+                LowLevelInfo lowInfo = hotel.getLowLevelInfo();
+                if (lowInfo == null) {
+                    return -6;
+                }
+
+                // Count the rooms requested of each type
+                HashMap<Integer, Integer> requested = new HashMap<Integer, Integer>();
+                for (int roomType : roomTypes) {
+                    requested.merge(roomType, 1, Integer::sum);
+                }
+
+                // Price each type before any night is claimed; rooms of the same type share a price
+                HashMap<Integer, long[]> prices = new HashMap<Integer, long[]>();
+                for (Map.Entry<Integer, Integer> entry : requested.entrySet()) {
+                    int roomType = entry.getKey();
+                    if (lowInfo.countAvailableRooms(roomType, checkInDate, checkOutDate) < entry.getValue()) {
+                        return -5;
+                    }
+                    long basePrice = lowInfo.findAvailableRoom(roomType, checkInDate, checkOutDate).getPriceCents();
+                    prices.put(roomType, new long[] {
+                            lowInfo.computeStayPrice(basePrice, roomType, checkInDate, checkOutDate),
+                            lowInfo.getPriceOnDay(basePrice, roomType, checkInDate, checkOutDate) });
+                }
+
+                // Claim each room as the assignment strategy chooses it
+                Room[] claimed = new Room[roomTypes.length];
+                for (int i = 0; i < roomTypes.length; i++) {
+                    claimed[i] = lowInfo.findAvailableRoom(roomTypes[i], checkInDate, checkOutDate);
+                    if (claimed[i] == null) { // A strategy that skips free rooms; release what was claimed
+                        for (int j = 0; j < i; j++) {
+                            lowInfo.releaseNights(claimed[j], checkInDate, checkOutDate);
+                        }
+                        return -5;
+                    }
+                    lowInfo.reserveNights(claimed[i], checkInDate, checkOutDate);
+                }
+
+                DiscountRule rule = discounts.getRule(discountCode);
+                boolean discounted = rule != null && rule.isEligible(checkInDate, checkOutDate) && rule.redeem(discountCode);
+
+                int groupId = nextGroupId++;
+                for (int i = 0; i < claimed.length; i++) {
+                    long[] stayPrices = prices.get(roomTypes[i]);
+                    long price = discounted ? rule.applyDiscount(stayPrices[0], stayPrices[1]) : stayPrices[0];
+
+                    Reservation reservation = new Reservation(guestName, checkInDate, checkOutDate, claimed[i], price);
+                    reservation.setGroupId(groupId);
+                    lowInfo.addReservation(reservation);
+                }
+
+                for (Integer roomType : requested.keySet()) {
+                    quoteCache.invalidateRooms(hotel, roomType, checkInDate, checkOutDate);
+                }
+                hotel.publishSnapshot();
+                return groupId;
+            }
+        }
+        return -7;
+    }
+    
+    
+    /**
+     * Quotes a stay in a specific hotel without booking it. No reservation is created,
+     * no room is blocked and no single-use discount code is redeemed.
+     * 
+     * If a discount code is given, the quote applies it the same way simulateBooking would.
+     * Without a code, the quote applies the shared discount in the DiscountRegistry that
+     * gives the lowest total for the stay, if any.
+     * 
+     * Quotes without a code or with a shared code are cached until a rate change, price update
+     * or booking affects them. Quotes with single-use codes are never cached.
+     * 
+     * @param hotelName The name of the hotel.
+     * @param checkInDate The check-in date for the stay.
+     * @param checkOutDate The check-out date for the stay.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to apply, or null to find the best discount.
+     * @return The Quote for the stay, or null if the dates are invalid, the hotel is not found
+     *         or the hotel has no room of the requested type.
+     */
+    public Quote quote(String hotelName, int checkInDate, int checkOutDate, int roomType, String discountCode) {
+        if (checkInDate < checkOutDate && checkInDate > 0 && checkOutDate <= 31) {
+            for (Hotel hotel : hotels) {
+                if (hotel.getHighLevelInfo().getHotelName().equals(hotelName)) {
+                    checkRegistryVersion();
+                    return quoteHotel(hotel, checkInDate, checkOutDate, roomType, discountCode);
+                }
+            }
+        }
+        return null;
+    }
+    
+    
+    /**
+     * Searches every hotel for a free room of a type for a stay. The hotels are quoted in parallel.
+     * 
+     * Without ranking, the search stops as soon as the limit is reached and the results are in
+     * the order the hotels were created. With ranking, every hotel is quoted and the results are
+     * sorted from the lowest to the highest total before the limit is applied.
+     * 
+     * @param checkInDate The check-in date for the stay.
+     * @param checkOutDate The check-out date for the stay.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to quote, or null to find the best discount in each hotel.
+     * @param limit The maximum number of results, or 0 for no limit.
+     * @param rankByPrice True to sort the results by quoted total.
+     * @return The quotes of the hotels with a free room, or null if the dates are invalid.
+     */
+    public ArrayList<Quote> searchAvailability(int checkInDate, int checkOutDate, int roomType, String discountCode,
+            int limit, boolean rankByPrice) {
+        return searchAvailability(checkInDate, checkOutDate, roomType, discountCode, limit, rankByPrice, true);
+    }
+    
+    
+    /**
+     * Searches every hotel for a free room of a type for a stay, as searchAvailability, either
+     * quoting the hotels in parallel or one after another on the calling thread.
+     * 
+     * @param checkInDate The check-in date for the stay.
+     * @param checkOutDate The check-out date for the stay.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to quote, or null to find the best discount in each hotel.
+     * @param limit The maximum number of results, or 0 for no limit.
+     * @param rankByPrice True to sort the results by quoted total.
+     * @param parallel True to quote the hotels on the common fork-join pool, false to quote them on the calling thread.
+     * @return The quotes of the hotels with a free room, or null if the dates are invalid.
+     */
+    ArrayList<Quote> searchAvailability(int checkInDate, int checkOutDate, int roomType, String discountCode,
+            int limit, boolean rankByPrice, boolean parallel) {
+        if (checkInDate >= checkOutDate || checkInDate <= 0 || checkOutDate > 31) {
+            return null;
+        }
+
+        checkRegistryVersion(); // Once before forking, so the search tasks only read the cache
+        ArrayList<Quote> results;
+        if (parallel) {
+            Hotel[] candidates = hotels.toArray(new Hotel[0]);
+            AvailabilitySearch search = new AvailabilitySearch(this, candidates, checkInDate, checkOutDate,
+                    roomType, discountCode, rankByPrice ? 0 : limit);
+            results = ForkJoinPool.commonPool().invoke(search);
+        } else {
+            results = new ArrayList<Quote>();
+            for (int i = 0; i < hotels.size() && (rankByPrice || limit <= 0 || results.size() < limit); i++) {
+                Quote quote = quoteHotel(hotels.get(i), checkInDate, checkOutDate, roomType, discountCode);
+                if (quote != null && quote.isAvailable()) {
+                    results.add(quote);
+                }
             }
         }
 
-        if (hotelNames.isEmpty()) {
-            return null; // Return null if no hotel names were added to the list
+        if (rankByPrice) {
+            results.sort(Comparator.comparingLong(Quote::getTotalCents));
+        }
+        if (limit > 0 && results.size() > limit) {
+            results.subList(limit, results.size()).clear(); // Ranges finished before the bound was lowered may add more
+        }
+        return results;
+    }
+    
+    
+    /**
+     * Clears the quote cache if the discount registry changed since the cached quotes were made,
+     * as the best discount may have changed. Called before quoting, never by the search tasks.
+     */
+    private void checkRegistryVersion() {
+        if (quotedRegistryVersion != discounts.getVersion()) {
+            quoteCache.clear();
+            quotedRegistryVersion = discounts.getVersion();
+        }
+    }
+    
+    
+    /**
+     * Looks up a quote in the quote cache, pricing and caching it on a miss.
+     * Called concurrently by AvailabilitySearch, after checkRegistryVersion.
+     * 
+     * @param hotel The hotel to quote.
+     * @param checkInDate The check-in date for the stay.
+     * @param checkOutDate The check-out date for the stay.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to apply, or null to find the best discount.
+     * @return The Quote for the stay, or null if the hotel has no room of the requested type.
+     */
+    Quote quoteHotel(Hotel hotel, int checkInDate, int checkOutDate, int roomType, String discountCode) {
+        if (discountCode != null && !discounts.isShared(discountCode)) {
+            return createQuote(hotel, checkInDate, checkOutDate, roomType, discountCode);
+        }
+
+        Quote quote = quoteCache.get(hotel, roomType, checkInDate, checkOutDate, discountCode);
+        if (quote == null) {
+            quote = createQuote(hotel, checkInDate, checkOutDate, roomType, discountCode);
+            if (quote != null) {
+                quoteCache.put(hotel, discountCode, quote);
+            }
+        }
+        return quote;
+    }
+    
+    
+    /**
+     * Prices a stay in a hotel for a quote.
+     * 
+     * @param hotel The hotel to quote.
+     * @param checkInDate The check-in date for the stay.
+     * @param checkOutDate The check-out date for the stay.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to apply, or null to find the best discount.
+     * @return The Quote for the stay, or null if the hotel has no room of the requested type.
+     */
+    private Quote createQuote(Hotel hotel, int checkInDate, int checkOutDate, int roomType, String discountCode) {
+        LowLevelInfo lowInfo = hotel.getLowLevelInfo();
+        if (lowInfo == null) {
+            return null;
+        }
+
+        // Rooms of the same type share a price, so any of them can be used for pricing
+        int availableRooms = lowInfo.countAvailableRooms(roomType, checkInDate, checkOutDate);
+        Room room = availableRooms > 0
+                ? lowInfo.findAvailableRoom(roomType, checkInDate, checkOutDate)
+                : lowInfo.findRoomOfType(roomType);
+        if (room == null) {
+            return null;
+        }
+
+        long basePrice = room.getPriceCents();
+        long[] nightlyPrices = new long[checkOutDate - checkInDate];
+        for (int day = checkInDate; day < checkOutDate; day++) {
+            nightlyPrices[day - checkInDate] = lowInfo.getNightlyPrice(basePrice, roomType, day);
+        }
+        long subtotal = lowInfo.computeStayPrice(basePrice, roomType, checkInDate, checkOutDate);
+        long priceOnDay = lowInfo.getPriceOnDay(basePrice, roomType, checkInDate, checkOutDate);
+
+        DiscountRule bestDiscount = null;
+        long total = subtotal;
+        if (discountCode != null) {
+            DiscountRule rule = discounts.getRule(discountCode);
+            if (rule != null && rule.isEligible(checkInDate, checkOutDate) && rule.isRedeemable(discountCode)) {
+                bestDiscount = rule;
+                total = rule.applyDiscount(subtotal, priceOnDay);
+            }
+        } else {
+            for (DiscountRule rule : discounts.getRules()) {
+                if (rule.isEligible(checkInDate, checkOutDate)) {
+                    long discountedTotal = rule.applyDiscount(subtotal, priceOnDay);
+                    if (discountedTotal < total) {
+                        bestDiscount = rule;
+                        total = discountedTotal;
+                    }
+                }
+            }
+        }
+
+        return new Quote(hotel.getHighLevelInfo().getHotelName(), roomType, checkInDate, checkOutDate,
+                availableRooms, nightlyPrices, subtotal, bestDiscount, total);
+    }
+    
+    
+    /**
+     * Retrieves and returns a list of hotel names.
+     * 
+     * The names are copied from the read-only copy of the hotels published on every change,
+     * so the list can be built while other threads create or remove hotels. Each call returns
+     * a new list. If no hotel names are found, it returns null.
+     * 
+     * @return An ArrayList of Strings containing the names of hotels. Returns null if no hotel names are found.
+     */
+    public ArrayList<String> displayHotelList() {
+        Map<String, Hotel> current = publishedHotels;
+        if (current.isEmpty()) {
+            return null; // Return null if there are no hotels
         }
 
-        return hotelNames; // Return the list of hotel names
+        return new ArrayList<String>(current.keySet()); // Return the list of hotel names
     }
 
     /*
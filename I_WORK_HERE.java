@@ -4,15 +4,15 @@
  */
 public class I_WORK_HERE extends Discount {
 	
-    private static final double DISCOUNT_RATE = 0.9; // 10% discount
+    static final double DISCOUNT_RATE = 0.9; // 10% discount
 
     
     /**
      * Constructs an I_WORK_HERE discount object with the specified base price.
      * 
-     * @param basePrice The base price of the booking before applying the discount.
+     * @param basePrice The base price of the booking before applying the discount, in cents.
      */
-    public I_WORK_HERE(double basePrice) {
+    public I_WORK_HERE(long basePrice) {
 
       super(basePrice);
     }
@@ -20,11 +20,11 @@ public class I_WORK_HERE extends Discount {
     /**
      * Applies the I_WORK_HERE discount to the base price.
      * 
-     * @return The total price after applying the discount.
+     * @return The total price after applying the discount, in cents.
      */
-    public double applyDiscount(){
+    public long applyDiscount(){
 
-      double discountTotal =  basePrice * DISCOUNT_RATE;
+      long discountTotal = Money.multiply(basePrice, DISCOUNT_RATE);
       return discountTotal;
 
     }
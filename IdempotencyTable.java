@@ -0,0 +1,103 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * The IdempotencyTable class remembers the outcome of recent requests by their idempotency key,
+ * so a retried request can be answered with its original outcome instead of being run again.
+ * Keys are forgotten once they are older than the time window, or when the table is full,
+ * oldest first. All methods are synchronized so the table can be shared by concurrent front ends.
+ */
+public class IdempotencyTable {
+
+    public static final int NOT_FOUND = Integer.MIN_VALUE; // Returned by lookup; no status code uses it
+
+    private final long windowMillis;
+    private final int capacity;
+    private final LinkedHashMap<String, Outcome> outcomes; // In the order the requests were first seen
+
+    /**
+     * Constructs an empty IdempotencyTable.
+     *
+     * @param windowMillis How long a key is remembered, in milliseconds.
+     * @param capacity The maximum number of keys remembered.
+     */
+    public IdempotencyTable(long windowMillis, int capacity) {
+        this.windowMillis = windowMillis;
+        this.capacity = capacity;
+        this.outcomes = new LinkedHashMap<String, Outcome>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Outcome> eldest) {
+                return size() > IdempotencyTable.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Retrieves the outcome recorded for a key within the time window.
+     *
+     * @param key The idempotency key of the request.
+     * @param nowMillis The current time in milliseconds.
+     * @return The recorded status code, or NOT_FOUND if the key is not remembered.
+     */
+    public synchronized int lookup(String key, long nowMillis) {
+        evictExpired(nowMillis);
+        Outcome outcome = outcomes.get(key);
+        return outcome != null ? outcome.statusCode : NOT_FOUND;
+    }
+
+    /**
+     * Records the outcome of a request.
+     *
+     * @param key The idempotency key of the request.
+     * @param statusCode The status code returned to the first request.
+     * @param nowMillis The current time in milliseconds.
+     */
+    public synchronized void record(String key, int statusCode, long nowMillis) {
+        evictExpired(nowMillis);
+        if (!outcomes.containsKey(key)) {
+            outcomes.put(key, new Outcome(statusCode, nowMillis));
+        }
+    }
+
+    /**
+     * Returns the number of keys remembered.
+     *
+     * @return The number of keys in the table.
+     */
+    public synchronized int size() {
+        return outcomes.size();
+    }
+
+    /**
+     * Forgets the keys recorded before the time window. Keys are in recording order,
+     * so this stops at the first key that is still within the window.
+     *
+     * @param nowMillis The current time in milliseconds.
+     */
+    private void evictExpired(long nowMillis) {
+        Iterator<Outcome> iterator = outcomes.values().iterator();
+        while (iterator.hasNext()) {
+            if (nowMillis - iterator.next().recordedAt < windowMillis) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * The status code of a request and the time it was recorded.
+     */
+    private static final class Outcome {
+        private final int statusCode;
+        private final long recordedAt;
+
+        private Outcome(int statusCode, long recordedAt) {
+            this.statusCode = statusCode;
+            this.recordedAt = recordedAt;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+
+/**
+ * The LostDemand class counts the booking requests that were turned away, so unmet demand can be
+ * reported by hotel, room type, night and stay length without keeping every request.
+ * Each hotel has a few fixed-size arrays of counters; recording a request only increments them.
+ * All methods are synchronized so requests can be recorded from concurrent bookings.
+ *
+ * Hotel names are matched ignoring case, as HotelTracker matches them.
+ */
+public class LostDemand {
+
+    private static final int TYPES = 4; // Room types 1-3, index 0 counts any other type
+    private static final int DAYS = 32; // Indexed by day of the month (1-31)
+
+    private final TreeMap<String, Counters> countersByHotel; // By hotel name, ignoring case
+
+    /**
+     * Constructs an empty LostDemand.
+     */
+    public LostDemand() {
+        this.countersByHotel = new TreeMap<String, Counters>(String.CASE_INSENSITIVE_ORDER);
+    }
+
+    /**
+     * Records a request rejected because no room was available for the stay (status code 5).
+     *
+     * @param hotelName The name of the hotel.
+     * @param roomType The type of room requested.
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     */
+    public synchronized void recordUnavailable(String hotelName, int roomType, int checkInDate, int checkOutDate) {
+        Counters counters = countersOf(hotelName);
+        int type = typeIndex(roomType);
+        int row = type * DAYS;
+
+        counters.unavailable[type]++;
+        counters.stayLengths[row + checkOutDate - checkInDate]++;
+        for (int day = checkInDate; day < checkOutDate; day++) {
+            counters.nights[row + day]++;
+        }
+    }
+
+    /**
+     * Records a request rejected because of invalid dates (status code 8).
+     *
+     * @param hotelName The name of the hotel.
+     * @param roomType The type of room requested.
+     */
+    public synchronized void recordInvalidDates(String hotelName, int roomType) {
+        countersOf(hotelName).invalidDates[typeIndex(roomType)]++;
+    }
+
+    /**
+     * Returns the number of requests for a room type rejected because no room was available.
+     *
+     * @param hotelName The name of the hotel.
+     * @param roomType The room type (1-3), or any other value for the other types.
+     * @return The number of rejected requests.
+     */
+    public synchronized int getUnavailableCount(String hotelName, int roomType) {
+        Counters counters = countersByHotel.get(hotelName);
+        return counters == null ? 0 : counters.unavailable[typeIndex(roomType)];
+    }
+
+    /**
+     * Returns the number of requests for a room type rejected because of invalid dates.
+     *
+     * @param hotelName The name of the hotel.
+     * @param roomType The room type (1-3), or any other value for the other types.
+     * @return The number of rejected requests.
+     */
+    public synchronized int getInvalidDatesCount(String hotelName, int roomType) {
+        Counters counters = countersByHotel.get(hotelName);
+        return counters == null ? 0 : counters.invalidDates[typeIndex(roomType)];
+    }
+
+    /**
+     * Returns the number of rejected requests for a room type that included a night.
+     *
+     * @param hotelName The name of the hotel.
+     * @param roomType The room type (1-3), or any other value for the other types.
+     * @param day The night (1-30).
+     * @return The number of room nights requested but not available.
+     */
+    public synchronized int getLostNights(String hotelName, int roomType, int day) {
+        Counters counters = countersByHotel.get(hotelName);
+        if (counters == null || day < 1 || day >= DAYS) {
+            return 0;
+        }
+        return counters.nights[typeIndex(roomType) * DAYS + day];
+    }
+
+    /**
+     * Returns the number of rejected requests for a room type with a given stay length.
+     *
+     * @param hotelName The name of the hotel.
+     * @param roomType The room type (1-3), or any other value for the other types.
+     * @param nights The number of nights of the stay (1-30).
+     * @return The number of rejected requests of that length.
+     */
+    public synchronized int getStayLengthCount(String hotelName, int roomType, int nights) {
+        Counters counters = countersByHotel.get(hotelName);
+        if (counters == null || nights < 1 || nights >= DAYS) {
+            return 0;
+        }
+        return counters.stayLengths[typeIndex(roomType) * DAYS + nights];
+    }
+
+    /**
+     * Builds a report of the rejected requests of every hotel.
+     * For each hotel and room type with rejections, the report lists the totals, the lost room
+     * nights of every night that had any, and the rejected requests by stay length.
+     *
+     * @return An ArrayList with one line of the report per entry, hotels in name order.
+     */
+    public synchronized ArrayList<String> report() {
+        ArrayList<String> lines = new ArrayList<String>();
+        for (Counters counters : countersByHotel.values()) {
+            lines.add(counters.hotelName);
+            for (int type = 0; type < TYPES; type++) {
+                if (counters.unavailable[type] == 0 && counters.invalidDates[type] == 0) {
+                    continue;
+                }
+
+                lines.add("  " + typeName(type) + ": " + counters.unavailable[type] + " unavailable, "
+                        + counters.invalidDates[type] + " invalid dates");
+                StringBuilder nights = new StringBuilder("    Lost nights:");
+                StringBuilder lengths = new StringBuilder("    Stay lengths:");
+                for (int day = 1; day < DAYS; day++) {
+                    int lost = counters.nights[type * DAYS + day];
+                    if (lost > 0) {
+                        nights.append(' ').append(day).append('=').append(lost);
+                    }
+                    int stays = counters.stayLengths[type * DAYS + day];
+                    if (stays > 0) {
+                        lengths.append(' ').append(day).append('=').append(stays);
+                    }
+                }
+                if (counters.unavailable[type] > 0) {
+                    lines.add(nights.toString());
+                    lines.add(lengths.toString());
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Moves the counters of a hotel to its new name.
+     *
+     * @param oldName The previous name of the hotel.
+     * @param newName The new name of the hotel.
+     */
+    public synchronized void renameHotel(String oldName, String newName) {
+        Counters counters = countersByHotel.remove(oldName);
+        if (counters != null) {
+            counters.hotelName = newName;
+            countersByHotel.put(newName, counters);
+        }
+    }
+
+    /**
+     * Removes the counters of a hotel, e.g. when the hotel is removed.
+     *
+     * @param hotelName The name of the hotel.
+     */
+    public synchronized void removeHotel(String hotelName) {
+        countersByHotel.remove(hotelName);
+    }
+
+    /**
+     * Removes every counter.
+     */
+    public synchronized void clear() {
+        countersByHotel.clear();
+    }
+
+    /**
+     * Gets the counters of a hotel, creating them on its first rejection.
+     *
+     * @param hotelName The name of the hotel.
+     * @return The Counters of the hotel.
+     */
+    private Counters countersOf(String hotelName) {
+        Counters counters = countersByHotel.get(hotelName);
+        if (counters == null) {
+            counters = new Counters(hotelName);
+            countersByHotel.put(hotelName, counters);
+        }
+        return counters;
+    }
+
+    /**
+     * Maps a room type to its counter index.
+     *
+     * @param roomType The room type.
+     * @return The room type if it is 1-3, or 0 for any other type.
+     */
+    private static int typeIndex(int roomType) {
+        return roomType >= 1 && roomType < TYPES ? roomType : 0;
+    }
+
+    /**
+     * Returns the display name of a counter index.
+     *
+     * @param type The counter index.
+     * @return The name of the room type.
+     */
+    private static String typeName(int type) {
+        switch (type) {
+            case 1:
+                return "Standard Room";
+            case 2:
+                return "Deluxe Room";
+            case 3:
+                return "Executive Room";
+            default:
+                return "Other";
+        }
+    }
+
+    /**
+     * The counters of one hotel. Per-type arrays are laid out as one row of DAYS entries per type.
+     */
+    private static final class Counters {
+        private String hotelName; // Name shown in the report
+        private final int[] unavailable = new int[TYPES];
+        private final int[] invalidDates = new int[TYPES];
+        private final int[] nights = new int[TYPES * DAYS]; // Lost room nights by type and night
+        private final int[] stayLengths = new int[TYPES * DAYS]; // Rejected requests by type and number of nights
+
+        private Counters(String hotelName) {
+            this.hotelName = hotelName;
+        }
+    }
+}
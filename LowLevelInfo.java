@@ -1,34 +1,85 @@
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 
 /**
  * The LowLevelInfo class manages the detailed information of a hotel's rooms and reservations.
  * This includes room availability, reservations, and pricing modifications.
+ *
+ * Queries vastly outnumber changes, so the rooms and reservations are guarded by a StampedLock:
+ * a query first reads without locking and only takes the read lock if a change ran meanwhile,
+ * while the methods that change rooms or reservations take the write lock. The room queries
+ * (getRoom, the counts, findAvailableRoom, findRoomOfType, findReservation, and each get or size of
+ * the getRooms and getRoomsOfType lists) can thus be made by any thread while the hotel is being
+ * booked; changes still come from one thread at a time. Iterating those lists, and getReservations,
+ * are for the thread that changes the hotel; other threads read the hotel's HotelSnapshot instead.
  */
 public class LowLevelInfo {
-  private ArrayList<Room> rooms;
+  private static final int ROOM_TYPES = 128; // Room types are 1-127
+  private static final List<Room> NO_ROOMS = new ArrayList<Room>();
+
+  private List<Room> rooms; // Read-only view of the store in room order
+  private RoomStore store; // Types, prices and booked days of the rooms, in room order
+  private final StampedLock lock = new StampedLock(); // Guards the rooms and the reservations
+  private ArrayList<List<Room>> roomsByType; // Read-only views of the rooms of each type, in room order
   private ArrayList<Reservation> reservations;
+  private ArrayList<Reservation> removedReservations; // Removed since the last snapshot
+  private ArrayList<Reservation> movedReservations; // Moved to another room since the last snapshot
+  private boolean reservationsReset; // Every reservation must be copied into the next snapshot
   // private String hotelName;
   private NormalDates normal;
   private ModifiedDates modified;
+  private RoomAssignmentStrategy assignment;
+  private Waitlist waitlist;
+  private DynamicPricing pricing;
 
   /**
    * Constructs a LowLevelInfo object, initializing the rooms and reservations lists,
    * as well as the modified and normal date information.
    */
   public LowLevelInfo() {
-    this.rooms = new ArrayList<Room>();
+    this.store = new RoomStore(16);
+    this.rooms = new AbstractList<Room>() {
+      @Override
+      public Room get(int index) {
+        return readRoom(() -> {
+          if (index < 0 || index >= store.size()) {
+            throw new IndexOutOfBoundsException("Room index " + index + ", rooms " + store.size());
+          }
+          return store.slotAt(index);
+        });
+      }
+
+      @Override
+      public int size() {
+        return read(() -> store.size());
+      }
+    };
+    this.roomsByType = new ArrayList<List<Room>>(ROOM_TYPES);
+    for (int type = 0; type < ROOM_TYPES; type++) {
+      roomsByType.add(new RoomsOfType(type, true));
+    }
     this.reservations = new ArrayList<Reservation>();
+    this.removedReservations = new ArrayList<Reservation>();
+    this.movedReservations = new ArrayList<Reservation>();
     this.modified = new ModifiedDates(); // Initialize modified dates
     this.normal = new NormalDates(modified); // Initialize normal dates with modified dates reference
+    this.assignment = new FirstFitAssignment();
+    this.waitlist = new Waitlist();
+    this.pricing = new DynamicPricing(modified);
   }
 
   /**
    * Gets the list of rooms in the hotel.
    * 
-   * @return An ArrayList of Room objects representing the hotel's rooms.
+   * @return A read-only list of the hotel's rooms in room order, which follows later changes to the rooms.
+   *         Only the thread that changes the hotel may iterate it, as rooms may come and go in between.
    */
-  public ArrayList<Room> getRooms() {
+  public List<Room> getRooms() {
     return rooms;
   }
 
@@ -39,10 +90,95 @@ public class LowLevelInfo {
    * @return The Room object corresponding to the specified room number, or null if not found.
    */
   public Room getRoom(int roomNumber) {
-    if (roomNumber > 0 && roomNumber <= rooms.size()) {
-      return rooms.get(roomNumber - 1);
+    return readRoom(() -> roomNumber > 0 && roomNumber <= store.size() ? store.slotAt(roomNumber - 1) : -1);
+  }
+
+  /**
+   * Finds the slot of a room without locking and returns its handle if it already exists, then
+   * validates that no change ran meanwhile. Otherwise the slot is found again under the read lock,
+   * where the handle can be created without a change moving the room to another slot.
+   * 
+   * @param slotQuery The query finding the slot, or -1 if there is no such room.
+   * @return The Room in the slot, or null if there is no such room.
+   */
+  private Room readRoom(IntSupplier slotQuery) {
+    long stamp = lock.tryOptimisticRead();
+    if (stamp != 0) {
+      try {
+        int slot = slotQuery.getAsInt();
+        Room room = slot >= 0 ? store.peekRoom(slot) : null;
+        if (lock.validate(stamp) && (room != null || slot < 0)) {
+          return room;
+        }
+      } catch (RuntimeException e) {
+        // Arrays replaced by a change while they were read; read again under the lock
+      }
+    }
+
+    stamp = lock.readLock();
+    try {
+      int slot = slotQuery.getAsInt();
+      return slot >= 0 ? store.getRoom(slot) : null;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Runs a query without locking, then validates that no change ran meanwhile.
+   * If one did, the query runs again under the read lock.
+   * 
+   * @param query The query, which must only read the rooms and reservations.
+   * @return The result of the query.
+   */
+  private int read(IntSupplier query) {
+    long stamp = lock.tryOptimisticRead();
+    if (stamp != 0) {
+      try {
+        int result = query.getAsInt();
+        if (lock.validate(stamp)) {
+          return result;
+        }
+      } catch (RuntimeException e) {
+        // Arrays replaced by a change while they were read; read again under the lock
+      }
+    }
+
+    stamp = lock.readLock();
+    try {
+      return query.getAsInt();
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Runs a query returning an object without locking, then validates that no change ran meanwhile.
+   * If one did, the query runs again under the read lock.
+   * 
+   * @param <T> The type of the result.
+   * @param query The query, which must only read the rooms and reservations.
+   * @return The result of the query.
+   */
+  private <T> T read(Supplier<T> query) {
+    long stamp = lock.tryOptimisticRead();
+    if (stamp != 0) {
+      try {
+        T result = query.get();
+        if (lock.validate(stamp)) {
+          return result;
+        }
+      } catch (RuntimeException e) {
+        // Arrays replaced by a change while they were read; read again under the lock
+      }
+    }
+
+    stamp = lock.readLock();
+    try {
+      return query.get();
+    } finally {
+      lock.unlockRead(stamp);
     }
-    return null;
   }
 
   /**
@@ -51,11 +187,87 @@ public class LowLevelInfo {
    * @param room The Room object to add.
    */
   public void addRoom(Room room) {
-    rooms.add(room);
+    long stamp = lock.writeLock();
+    try {
+      store.add(room);
+      pricing.roomAdded(room);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
   }
 
   /**
-   * Gets the list of reservations for the hotel.
+   * Removes a room from the hotel's list of rooms.
+   * 
+   * @param roomNumber The number of the room to remove.
+   * @return The removed Room, or null if the room number is invalid.
+   */
+  public Room removeRoom(int roomNumber) {
+    long stamp = lock.writeLock();
+    try {
+      if (roomNumber < 1 || roomNumber > store.size()) {
+        return null;
+      }
+
+      Room room = store.getRoomAt(roomNumber - 1);
+      store.remove(room.getSlot());
+      pricing.roomRemoved(room);
+      return room;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Gets the rooms of a specific type.
+   * 
+   * @param roomType The room type.
+   * @return The rooms of the type in room order; empty if the hotel has none. The list must not be modified,
+   *         and only the thread that changes the hotel may iterate it.
+   */
+  public List<Room> getRoomsOfType(int roomType) {
+    return roomType >= 0 && roomType < ROOM_TYPES ? roomsByType.get(roomType) : NO_ROOMS;
+  }
+
+  /**
+   * Gets the store holding the types, prices and booked days of the rooms in primitive arrays.
+   * 
+   * @return The RoomStore of the hotel.
+   */
+  public RoomStore getRoomStore() {
+    return store;
+  }
+
+  /**
+   * Drops the memory the hotel keeps outside the Java heap, if any, so the garbage collector can
+   * return it to the system; it is not freed right away. The LowLevelInfo must not be used afterwards.
+   */
+  public void close() {
+    long stamp = lock.writeLock();
+    try {
+      store.close();
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Moves the masks, prices and day bitsets of the rooms off the Java heap, or back onto it.
+   * 
+   * @param offHeap True to keep them off the heap, false to keep them in Java arrays.
+   */
+  public void setOffHeap(boolean offHeap) {
+    long stamp = lock.writeLock();
+    try {
+      store.setOffHeap(offHeap);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Gets the list of reservations for the hotel. The list is the live one, so only the thread that
+   * changes the hotel may read it; other threads use findReservation or the hotel's HotelSnapshot.
    * 
    * @return An ArrayList of Reservation objects representing the hotel's reservations.
    */
@@ -69,7 +281,146 @@ public class LowLevelInfo {
    * @param reservation The Reservation object to add.
    */
   public void addReservation(Reservation reservation) {
-    reservations.add(reservation);
+    long stamp = lock.writeLock();
+    try {
+      reservations.add(reservation);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Removes a reservation from the hotel's list of reservations. The caller releases its nights.
+   * 
+   * @param reservation The Reservation object to remove.
+   * @return true if the reservation was in the list, false otherwise.
+   */
+  public boolean removeReservation(Reservation reservation) {
+    long stamp = lock.writeLock();
+    try {
+      if (!reservations.remove(reservation)) {
+        return false;
+      }
+      recordChange(removedReservations, reservation);
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Finds the reservation of a guest.
+   * 
+   * @param guestName The name of the guest.
+   * @return The first Reservation made under the guest's name, or null if there is none.
+   */
+  public Reservation findReservation(String guestName) {
+    return read(() -> {
+      ArrayList<Reservation> list = reservations;
+      for (int i = 0; i < list.size(); i++) {
+        Reservation reservation = list.get(i);
+        if (guestName.equals(reservation.getGuestName())) {
+          return reservation;
+        }
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Assigns a reservation to another room. The caller moves its nights from the old room to the new one.
+   * 
+   * @param reservation The reservation being moved.
+   * @param room The room the reservation moves to.
+   */
+  public void setReservationRoom(Reservation reservation, Room room) {
+    long stamp = lock.writeLock();
+    try {
+      reservation.setRoom(room);
+      recordChange(movedReservations, reservation);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Moves reservations to other rooms under one lock. The nights of every moved reservation are
+   * released before any is reserved again, so reservations can swap rooms.
+   * 
+   * @param moved The reservations to move.
+   * @param rooms The room each reservation moves to, at the same index.
+   */
+  public void moveReservations(List<Reservation> moved, Room[] rooms) {
+    long stamp = lock.writeLock();
+    try {
+      for (int i = 0; i < moved.size(); i++) {
+        Reservation reservation = moved.get(i);
+        release(reservation.getRoom(), reservation.getCheckInDate(), reservation.getCheckOutDate());
+      }
+      for (int i = 0; i < moved.size(); i++) {
+        Reservation reservation = moved.get(i);
+        reserve(rooms[i], reservation.getCheckInDate(), reservation.getCheckOutDate());
+        reservation.setRoom(rooms[i]);
+        recordChange(movedReservations, reservation);
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Records a change to a reservation for the next snapshot. Once more reservations changed than
+   * are worth updating one by one, the next snapshot copies every reservation instead.
+   * 
+   * @param changes The list of removed or of moved reservations.
+   * @param reservation The changed reservation.
+   */
+  private void recordChange(ArrayList<Reservation> changes, Reservation reservation) {
+    if (reservationsReset) {
+      return;
+    }
+    if (changes.size() >= 64) {
+      reservationsReset = true;
+      return;
+    }
+    changes.add(reservation);
+  }
+
+  /**
+   * Gets the reservations removed since the last snapshot.
+   * 
+   * @return The removed reservations, in the order they were removed.
+   */
+  ArrayList<Reservation> getRemovedReservations() {
+    return removedReservations;
+  }
+
+  /**
+   * Gets the reservations moved to another room since the last snapshot.
+   * 
+   * @return The moved reservations, in the order they were moved.
+   */
+  ArrayList<Reservation> getMovedReservations() {
+    return movedReservations;
+  }
+
+  /**
+   * Checks whether every reservation must be copied into the next snapshot, because the list of
+   * reservations was replaced or too many reservations changed to be recorded.
+   * 
+   * @return true if the recorded changes are not enough to update the last snapshot, false otherwise.
+   */
+  boolean isReservationsReset() {
+    return reservationsReset;
+  }
+
+  /**
+   * Forgets the changes to the reservations, once a snapshot with them has been published.
+   */
+  void clearReservationChanges() {
+    removedReservations.clear();
+    movedReservations.clear();
+    reservationsReset = false;
   }
 
   /**
@@ -79,13 +430,7 @@ public class LowLevelInfo {
    * @return The number of available rooms on the specified date.
    */
   public int getAvailableRooms(int selectedDate) {
-    int availableRooms = 0;
-    for (Room room : rooms) {
-      if (room.getAvailabilityDay(selectedDate)) {
-        availableRooms++;
-      }
-    }
-    return availableRooms;
+    return read(() -> store.countFreeOn(selectedDate));
   }
 
   /**
@@ -95,13 +440,217 @@ public class LowLevelInfo {
    * @return The number of booked rooms on the specified date.
    */
   public int getBookedRooms(int selectedDate) {
-    int bookedRooms = 0;
-    for (Room room : rooms) {
-      if (!room.getAvailabilityDay(selectedDate)) {
-        bookedRooms++;
+    return read(() -> store.size() - store.countFreeOn(selectedDate));
+  }
+
+  /**
+   * Finds a room of a type that is available for every night of a stay,
+   * chosen by the hotel's room assignment strategy.
+   * 
+   * @param roomType The type of room requested.
+   * @param checkInDate The check-in date (1-31).
+   * @param checkOutDate The check-out date (1-31).
+   * @return An available Room of the type, or null if none is available.
+   */
+  public Room findAvailableRoom(int roomType, int checkInDate, int checkOutDate) {
+    if (assignment instanceof FirstFitAssignment) {
+      // The first free room in room order is found by sweeping the store arrays
+      int stay = Room.nightMask(checkInDate, checkOutDate);
+      return readRoom(() -> store.findFree(roomType, stay));
+    }
+    if (roomType < 0 || roomType >= ROOM_TYPES) {
+      return null;
+    }
+
+    // The strategy walks the rooms of the type, which no change may move meanwhile
+    long stamp = lock.readLock();
+    try {
+      return assignment.selectRoom(new RoomsOfType(roomType, false), roomType, checkInDate, checkOutDate);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Marks a room as booked for every night of a stay.
+   * 
+   * @param room The room being booked.
+   * @param checkInDate The check-in date (1-31).
+   * @param checkOutDate The check-out date (1-31).
+   */
+  public void reserveNights(Room room, int checkInDate, int checkOutDate) {
+    long stamp = lock.writeLock();
+    try {
+      reserve(room, checkInDate, checkOutDate);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Marks a room as available again for every night of a stay.
+   * 
+   * @param room The room being released.
+   * @param checkInDate The check-in date (1-31).
+   * @param checkOutDate The check-out date (1-31).
+   */
+  public void releaseNights(Room room, int checkInDate, int checkOutDate) {
+    long stamp = lock.writeLock();
+    try {
+      release(room, checkInDate, checkOutDate);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Marks a room as booked for a stay. The caller holds the write lock.
+   * 
+   * @param room The room being booked.
+   * @param checkInDate The check-in date (1-31).
+   * @param checkOutDate The check-out date (1-31).
+   */
+  private void reserve(Room room, int checkInDate, int checkOutDate) {
+    room.reserveNights(checkInDate, checkOutDate);
+    pricing.nightsReserved(room.getRoomType(), checkInDate, checkOutDate);
+  }
+
+  /**
+   * Marks a room as available again for a stay. The caller holds the write lock.
+   * 
+   * @param room The room being released.
+   * @param checkInDate The check-in date (1-31).
+   * @param checkOutDate The check-out date (1-31).
+   */
+  private void release(Room room, int checkInDate, int checkOutDate) {
+    room.releaseNights(checkInDate, checkOutDate);
+    pricing.nightsReleased(room.getRoomType(), checkInDate, checkOutDate);
+  }
+
+  /**
+   * Gets the strategy used to choose the room a new stay is assigned to.
+   * 
+   * @return The RoomAssignmentStrategy of the hotel.
+   */
+  public RoomAssignmentStrategy getAssignmentStrategy() {
+    return this.assignment;
+  }
+
+  /**
+   * Sets the strategy used to choose the room a new stay is assigned to.
+   * 
+   * @param assignment The RoomAssignmentStrategy to use, e.g. a BestFitAssignment.
+   */
+  public void setAssignmentStrategy(RoomAssignmentStrategy assignment) {
+    this.assignment = assignment;
+  }
+
+  /**
+   * Gets the waitlist of booking requests that could not be booked yet.
+   * 
+   * @return The Waitlist of the hotel.
+   */
+  public Waitlist getWaitlist() {
+    return this.waitlist;
+  }
+
+  /**
+   * Gets the engine that adjusts the price of each room type and night to its occupancy.
+   * 
+   * @return The DynamicPricing of the hotel.
+   */
+  public DynamicPricing getDynamicPricing() {
+    return this.pricing;
+  }
+
+  /**
+   * Counts the rooms of a type that are available for every night of a stay.
+   * 
+   * @param roomType The type of room requested.
+   * @param checkInDate The check-in date (1-31).
+   * @param checkOutDate The check-out date (1-31).
+   * @return The number of available rooms of the type.
+   */
+  public int countAvailableRooms(int roomType, int checkInDate, int checkOutDate) {
+    int stay = Room.nightMask(checkInDate, checkOutDate);
+    return read(() -> store.countFree(roomType, stay));
+  }
+
+  /**
+   * Finds the first room of a type, whether or not it is available.
+   * 
+   * @param roomType The type of room requested.
+   * @return The first Room of the type, or null if the hotel has no room of that type.
+   */
+  public Room findRoomOfType(int roomType) {
+    if (roomType < 0 || roomType >= ROOM_TYPES) {
+      return null;
+    }
+    return readRoom(() -> store.countOfType(roomType) > 0 ? store.slotOfType(roomType, 0) : -1);
+  }
+
+  /**
+   * Computes the price of a single night, applying the modified rate of the day if there is one
+   * and the occupancy multiplier of the room type.
+   * 
+   * @param basePrice The price of the room per night, in cents.
+   * @param roomType The type of the room.
+   * @param day The day of the month (1-31).
+   * @return The price of the night, in cents.
+   */
+  public long getNightlyPrice(long basePrice, int roomType, int day) {
+    double occupancyRate = modified.getOccupancyRate(roomType, day);
+    if (modified.getModifiedDate(day) != 0) {
+      return Money.multiply(basePrice, modified.getModifiedRate(day) * occupancyRate);
+    }
+    return Money.multiply(basePrice, occupancyRate);
+  }
+
+  /**
+   * Computes the price of a stay as the sum of its nights on normal dates and on modified dates.
+   * Unlike NormalDates and ModifiedDates, this does not store the result, so it can be used
+   * by quotes without side effects. Every night is multiplied by the occupancy multiplier of the room type.
+   * Each night is rounded to the cent before it is added, so the total is exactly the sum of the nightly prices.
+   * 
+   * @param basePrice The price of the room per night, in cents.
+   * @param roomType The type of the room.
+   * @param checkInDate The check-in date (1-31).
+   * @param checkOutDate The check-out date (1-31).
+   * @return The price of the stay before discounts, in cents.
+   */
+  public long computeStayPrice(long basePrice, int roomType, int checkInDate, int checkOutDate) {
+    long price = 0;
+    for (int day = checkInDate; day < checkOutDate; day++) {
+      price += getNightlyPrice(basePrice, roomType, day);
+    }
+    return price;
+  }
+
+  /**
+   * Computes the price of the night given away by discounts such as STAY4_GET1.
+   * If the stay contains a modified date, the rate of the check-in date is used;
+   * otherwise the price is the room's base price. Either is multiplied by the occupancy
+   * multiplier of the room type on the check-in date.
+   * 
+   * @param basePrice The price of the room per night, in cents.
+   * @param roomType The type of the room.
+   * @param checkInDate The check-in date (1-31).
+   * @param checkOutDate The check-out date (1-31).
+   * @return The price of one night of the stay, in cents.
+   */
+  public long getPriceOnDay(long basePrice, int roomType, int checkInDate, int checkOutDate) {
+    double rate = 0;
+    for (int day = checkInDate; day < checkOutDate; day++) {
+      if (modified.getModifiedDate(day) != 0) {
+        rate = modified.getModifiedRate(checkInDate);
+        break;
       }
     }
-    return bookedRooms;
+
+    if (rate == 0) {
+      rate = 1.0;
+    }
+    return Money.multiply(basePrice, rate * modified.getOccupancyRate(roomType, checkInDate));
   }
 
   /**
@@ -110,40 +659,51 @@ public class LowLevelInfo {
    * @param numberOfRooms The total number of rooms to generate.
    */
   public void generateRoomNames(int numberOfRooms) {
-      double basePrice = 1299.00;
-      Room room;
-
-      for (int i = 1, j = 1; i <= numberOfRooms; i++, j++) {
-          // Cycle through room types 1, 2, 3
-          switch (j) {
-              case 1:
-                  room = new StandardRoom("Room " + i, j, basePrice);
-                  break;
-              case 2:
-                  room = new DeluxeRoom("Room " + i, j, basePrice);
-                  break;
-              case 3:
-                  room = new ExecutiveRoom("Room " + i, j, basePrice);
-                  break;
-              default:
-                  room = new StandardRoom("Room " + i, j, basePrice);
-                  j = 1; // Reset type cycle
-                  break;
-          }
-
+    generateRooms(numberOfRooms, Money.fromAmount(1299.00));
+  }
 
-          rooms.add(room); // Add created room to the list
+  /**
+   * Appends rooms numbered after the current rooms, cycling through the Standard, Deluxe and
+   * Executive types by position. The rooms are stored as values only and every day is available;
+   * the Room objects are created the first time each room is used.
+   * 
+   * @param count The number of rooms to add.
+   * @param basePrice The price of a Standard Room per night, in cents.
+   */
+  public void generateRooms(int count, long basePrice) {
+    long[] prices = { 0, basePrice, DeluxeRoom.priceFor(basePrice), ExecutiveRoom.priceFor(basePrice) };
+    int[] added = new int[4];
+    long stamp = lock.writeLock();
+    try {
+      for (int i = 0; i < count; i++) {
+        int index = store.size();
+        int type = (index % 3) + 1; // This will cycle through 1, 2, 3
+        store.addValues(index + 1, type, prices[type]);
+        added[type]++;
       }
+      for (int type = 1; type <= 3; type++) {
+        pricing.roomsAdded(type, added[type]);
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
   }
 
   /**
-   * Initializes room availability for all rooms to true for all days of the month.
+   * Sets the price of every room from the price of a Standard Room, with the surcharge of each
+   * room type. The prices are written to the store, so no Room objects are created.
+   * 
+   * @param basePrice The price of a Standard Room per night, in cents.
    */
-  public void createDates() {
-    for (Room room : rooms) {
-      for (int i = 0; i < 31; i++) {
-        room.setAvailabilityDay(i + 1, true);
+  public void setRoomPrices(long basePrice) {
+    long[] prices = { 0, basePrice, DeluxeRoom.priceFor(basePrice), ExecutiveRoom.priceFor(basePrice) };
+    long stamp = lock.writeLock();
+    try {
+      for (int type = 1; type <= 3; type++) {
+        store.setPriceOfType(type, prices[type]);
       }
+    } finally {
+      lock.unlockWrite(stamp);
     }
   }
 
@@ -151,18 +711,24 @@ public class LowLevelInfo {
    * Initializes the list of reservations for the hotel.
    */
   public void createReservations() {
-    this.reservations = new ArrayList<Reservation>();
+    long stamp = lock.writeLock();
+    try {
+      this.reservations = new ArrayList<Reservation>();
+      this.reservationsReset = true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
   }
 
   /**
    * Checks if room prices can be updated based on the presence of reservations and the new price.
    * 
-   * @param newPrice The new price to be set for the rooms.
+   * @param newPrice The new price to be set for the rooms, in cents.
    * @param lowLevelInfo The LowLevelInfo object containing the current reservations.
    * @return true if the prices can be updated, false otherwise.
    */
-  public boolean canUpdateRoomPrice(double newPrice, LowLevelInfo lowLevelInfo) {
-	  if (newPrice < 100) {
+  public boolean canUpdateRoomPrice(long newPrice, LowLevelInfo lowLevelInfo) {
+	  if (newPrice < Money.fromAmount(100)) {
 	        return false; // New price is less than 100, cannot update
 	    }
 
@@ -191,6 +757,27 @@ public class LowLevelInfo {
       modified.addModifiedDates(day, rate);
   }
 
+  /**
+   * Changes the rates for every day from one day to another in one call.
+   * 
+   * @param firstDay The first day of the range (1-31).
+   * @param lastDay The last day of the range, inclusive (1-31).
+   * @param rate The new rate to apply to each day of the range.
+   */
+  public void changeRates(int firstDay, int lastDay, double rate){
+      modified.addModifiedDays(ModifiedDates.rangeMask(firstDay, lastDay), rate);
+  }
+
+  /**
+   * Changes the rates for a set of days in one call, e.g. every weekend of the month.
+   * 
+   * @param dayMask The days to change, with bit (day - 1) set for each day.
+   * @param rate The new rate to apply to each of the days.
+   */
+  public void changeRatePattern(int dayMask, double rate){
+      modified.addModifiedDays(dayMask, rate);
+  }
+
   /**
    * Gets the NormalDates object, representing days without rate changes.
    * 
@@ -225,6 +812,46 @@ public class LowLevelInfo {
    */
   public void setModifiedDates(ModifiedDates modified){
     this.modified = modified;
+    this.pricing.setModifiedDates(modified);
   }
 
-}
\ No newline at end of file
+
+  /**
+   * A read-only view of the rooms of one type, in room order, backed by the slot lists of the store.
+   */
+  private class RoomsOfType extends AbstractList<Room> {
+    private final int type;
+    private final boolean guarded; // False for a view read only while the lock is held
+
+    private RoomsOfType(int type, boolean guarded) {
+      this.type = type;
+      this.guarded = guarded;
+    }
+
+    @Override
+    public Room get(int index) {
+      if (guarded) {
+        return readRoom(() -> slotOfType(index));
+      }
+      return store.getRoom(slotOfType(index));
+    }
+
+    @Override
+    public int size() {
+      return guarded ? read(() -> store.countOfType(type)) : store.countOfType(type);
+    }
+
+    /**
+     * Returns the slot of a room of the type.
+     *
+     * @param index The position of the room among the rooms of the type.
+     * @return The slot of the room.
+     */
+    private int slotOfType(int index) {
+      if (index < 0 || index >= store.countOfType(type)) {
+        throw new IndexOutOfBoundsException("Room index " + index + ", rooms " + store.countOfType(type));
+      }
+      return store.slotOfType(type, index);
+    }
+  }
+}
@@ -1,3 +1,6 @@
+import java.util.Arrays;
+
+
 
 /**
  * The ModifiedDates class extends DatePriceModifier and manages date-specific rate modifications.
@@ -7,6 +10,14 @@ public class ModifiedDates extends DatePriceModifier {
 	
     private int[] modifiedDates = new int[31];
     private double[] rates = new double[31]; // Store rates as multipliers (e.g., 1.10 for 110%)
+    private double[] occupancyRates = new double[3 * 31]; // Multipliers set by dynamic pricing, per room type and day
+
+    /**
+     * Constructs a ModifiedDates with no modified rates and no occupancy multipliers.
+     */
+    public ModifiedDates() {
+        Arrays.fill(occupancyRates, 1.0);
+    }
 
     /**
      * Adds a modified rate for a specific day of the month.
@@ -21,6 +32,54 @@ public class ModifiedDates extends DatePriceModifier {
         }
     }
 
+    /**
+     * Adds the same modified rate for every day in a set of days, in one pass over the month.
+     * 
+     * @param dayMask The days to modify, with bit (day - 1) set for each day (e.g. from weeklyMask).
+     * @param rate The rate to apply, expressed as a percentage (e.g., 110 for 10% increase).
+     */
+    public void addModifiedDays(int dayMask, double rate) {
+        double multiplier = rate / 100; // Convert percentage to multiplier
+        for (int day = 1; day <= 31; day++) {
+            if ((dayMask & (1 << (day - 1))) != 0) {
+                modifiedDates[day - 1] = day;
+                rates[day - 1] = multiplier;
+            }
+        }
+    }
+
+    /**
+     * Builds the set of days from one day of the month to another.
+     * 
+     * @param firstDay The first day of the range (1 to 31).
+     * @param lastDay The last day of the range, inclusive (1 to 31).
+     * @return A mask with bit (day - 1) set for each day of the range, or 0 if the range is empty or invalid.
+     */
+    public static int rangeMask(int firstDay, int lastDay) {
+        if (firstDay < 1 || lastDay > 31 || firstDay > lastDay) {
+            return 0;
+        }
+        return Room.nightMask(firstDay, lastDay + 1);
+    }
+
+    /**
+     * Builds the set of days that repeat every week, e.g. every weekend.
+     * 
+     * @param weekDays The days of the first week (1 to 7) to repeat, e.g. 6 and 7 if the 6th is a Saturday.
+     * @return A mask with bit (day - 1) set for each of the days and every day 7, 14, 21 or 28 days later.
+     */
+    public static int weeklyMask(int... weekDays) {
+        int mask = 0;
+        for (int weekDay : weekDays) {
+            if (weekDay >= 1 && weekDay <= 7) {
+                for (int day = weekDay; day <= 31; day += 7) {
+                    mask |= 1 << (day - 1);
+                }
+            }
+        }
+        return mask;
+    }
+
     /**
      * Retrieves the modified date for a specific index.
      * 
@@ -49,20 +108,47 @@ public class ModifiedDates extends DatePriceModifier {
         }
     }
 
+    /**
+     * Sets the occupancy multiplier of a room type for a specific day of the month.
+     * 
+     * @param roomType The room type (1 to 3).
+     * @param day The day of the month (1 to 31).
+     * @param multiplier The multiplier applied to the price of the night (e.g., 1.10 for 10% increase).
+     */
+    public void setOccupancyRate(int roomType, int day, double multiplier) {
+        if (roomType >= 1 && roomType <= 3 && day >= 1 && day <= 31) {
+            occupancyRates[(roomType - 1) * 31 + day - 1] = multiplier;
+        }
+    }
+
+    /**
+     * Retrieves the occupancy multiplier of a room type for a specific day of the month.
+     * 
+     * @param roomType The room type (1 to 3).
+     * @param day The day of the month (1 to 31).
+     * @return The multiplier for the room type on the day, or 1.0 if none is set.
+     */
+    public double getOccupancyRate(int roomType, int day) {
+        if (roomType >= 1 && roomType <= 3 && day >= 1 && day <= 31) {
+            return occupancyRates[(roomType - 1) * 31 + day - 1];
+        }
+        return 1.0;
+    }
+
     /**
      * Computes the total price for a stay based on the modified rates.
      * 
      * @param checkInDate The check-in date (1 to 31).
      * @param checkOutDate The check-out date (1 to 31).
-     * @param basePrice The base price of the room.
+     * @param basePrice The base price of the room, in cents.
      */
     @Override
-    public void computePrice(int checkInDate, int checkOutDate, double basePrice) {
-        double price = 0;
+    public void computePrice(int checkInDate, int checkOutDate, long basePrice) {
+        long price = 0;
 
         for (int date = checkInDate; date < checkOutDate; date++) {
             double rate = getModifiedRate(date); // Get the rate for the current date
-            price += basePrice * rate; // Apply the rate
+            price += Money.multiply(basePrice, rate); // Apply the rate
         }
 
         super.setPrice(price);
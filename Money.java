@@ -0,0 +1,54 @@
+/**
+ * The Money class converts and computes amounts of money held as a whole number of cents in a long.
+ * Sums of cents are exact and do not depend on the order they are added in, so totals can be
+ * compared exactly and aggregated in parallel. All methods are static and allocate nothing.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount, e.g. entered by a user, to cents.
+     *
+     * @param amount The amount in pesos.
+     * @return The amount in cents, rounded to the nearest cent.
+     */
+    public static long fromAmount(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Converts cents to an amount for display.
+     *
+     * @param cents The amount in cents.
+     * @return The amount in pesos.
+     */
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Multiplies an amount by a rate, e.g. a discount rate or a price multiplier.
+     *
+     * @param cents The amount in cents.
+     * @param factor The rate to multiply by, e.g. 0.9 for a 10% discount.
+     * @return The product in cents, rounded to the nearest cent (halves away from zero).
+     */
+    public static long multiply(long cents, double factor) {
+        double product = cents * factor;
+        return product < 0 ? -Math.round(-product) : Math.round(product);
+    }
+
+    /**
+     * Formats an amount with two decimals, e.g. 1299.00.
+     *
+     * @param cents The amount in cents.
+     * @return The formatted amount.
+     */
+    public static String format(long cents) {
+        long whole = Math.abs(cents) / 100;
+        long fraction = Math.abs(cents) % 100;
+        return (cents < 0 ? "-" : "") + whole + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
@@ -22,11 +22,11 @@ public class NormalDates extends DatePriceModifier {
      * 
      * @param checkInDate The check-in date (1 to 31).
      * @param checkOutDate The check-out date (1 to 31).
-     * @param basePrice The base price of the room.
+     * @param basePrice The base price of the room, in cents.
      */
     @Override
-    public void computePrice(int checkInDate, int checkOutDate, double basePrice) {
-        double price = 0;
+    public void computePrice(int checkInDate, int checkOutDate, long basePrice) {
+        long price = 0;
 
         for (int i = checkInDate; i < checkOutDate; i++) {
             if (i <= 31 && modified.getModifiedDate(i) == 0) {
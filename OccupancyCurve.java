@@ -0,0 +1,56 @@
+import java.util.Arrays;
+
+
+/**
+ * The OccupancyCurve class maps the occupancy of a room type on a night to a price multiplier.
+ * The curve is a step function: the multiplier of the highest occupancy level reached applies,
+ * and below the first level the price is not changed. Curves are immutable.
+ */
+public class OccupancyCurve {
+
+    private final double[] levels;
+    private final double[] multipliers;
+
+    /**
+     * Constructs an OccupancyCurve from its steps.
+     *
+     * @param levels The occupancy levels (0 to 1) at which the multiplier changes, in ascending order.
+     * @param multipliers The multiplier applied from each level on, e.g. 1.10 for a 10% increase.
+     * @throws IllegalArgumentException If the arrays differ in length or the levels are not ascending.
+     */
+    public OccupancyCurve(double[] levels, double[] multipliers) {
+        if (levels.length != multipliers.length) {
+            throw new IllegalArgumentException("Each occupancy level needs one multiplier");
+        }
+        for (int i = 1; i < levels.length; i++) {
+            if (levels[i] <= levels[i - 1]) {
+                throw new IllegalArgumentException("Occupancy levels must be ascending");
+            }
+        }
+        this.levels = Arrays.copyOf(levels, levels.length);
+        this.multipliers = Arrays.copyOf(multipliers, multipliers.length);
+    }
+
+    /**
+     * Creates the default curve: 5% more from half occupancy, 10% more from 70% and 20% more from 90%.
+     *
+     * @return The default OccupancyCurve.
+     */
+    public static OccupancyCurve createDefault() {
+        return new OccupancyCurve(new double[] {0.5, 0.7, 0.9}, new double[] {1.05, 1.10, 1.20});
+    }
+
+    /**
+     * Returns the multiplier for an occupancy.
+     *
+     * @param occupancy The fraction of the rooms booked (0 to 1).
+     * @return The multiplier of the highest level at or below the occupancy, or 1.0 if none is reached.
+     */
+    public double getMultiplier(double occupancy) {
+        double multiplier = 1.0;
+        for (int i = 0; i < levels.length && levels[i] <= occupancy; i++) {
+            multiplier = multipliers[i];
+        }
+        return multiplier;
+    }
+}
@@ -0,0 +1,168 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+
+/**
+ * The OffHeapInventory class holds the inventory columns of a RoomStore that grow with the number
+ * of rooms (booked-day masks, prices and the per-day bitsets of booked slots) in direct memory
+ * instead of Java arrays, which takes them out of the heap occupancy. It does not shorten garbage
+ * collection pauses: the arrays it replaces hold no references, so the collector never scans
+ * their contents either, and a full collection takes about as long either way.
+ *
+ * The memory belongs to the store that created it. close drops the buffers, after which the
+ * inventory must not be used; the direct memory itself is returned to the system only once the
+ * garbage collector collects the buffers, as Java 17 has no public API to free it right away.
+ */
+public class OffHeapInventory {
+
+    private ByteBuffer masks; // One int per slot
+    private ByteBuffer prices; // One long per slot, in cents
+    private ByteBuffer bookedSlots; // One long per 64 slots for each of the 31 days, day after day
+    private int capacity;
+    private int words; // Words of each day in bookedSlots
+
+    /**
+     * Constructs an OffHeapInventory with every mask, price and bitset set to 0.
+     *
+     * @param capacity The number of slots.
+     */
+    OffHeapInventory(int capacity) {
+        this.capacity = capacity;
+        this.words = (capacity + 63) >>> 6;
+        this.masks = allocate(capacity * 4);
+        this.prices = allocate(capacity * 8);
+        this.bookedSlots = allocate(31 * words * 8);
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return The capacity of the inventory.
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the booked days of a slot.
+     *
+     * @param slot The slot.
+     * @return A mask with bit (day - 1) set for every booked day.
+     */
+    int getBookedMask(int slot) {
+        return masks.getInt(slot << 2);
+    }
+
+    /**
+     * Sets the booked days of a slot.
+     *
+     * @param slot The slot.
+     * @param bookedMask A mask with bit (day - 1) set for every booked day.
+     */
+    void setBookedMask(int slot, int bookedMask) {
+        masks.putInt(slot << 2, bookedMask);
+    }
+
+    /**
+     * Returns the price per night of a slot.
+     *
+     * @param slot The slot.
+     * @return The price in cents.
+     */
+    long getPrice(int slot) {
+        return prices.getLong(slot << 3);
+    }
+
+    /**
+     * Sets the price per night of a slot.
+     *
+     * @param slot The slot.
+     * @param price The price in cents.
+     */
+    void setPrice(int slot, long price) {
+        prices.putLong(slot << 3, price);
+    }
+
+    /**
+     * Returns 64 slots of the bitset of a day.
+     *
+     * @param day The day index (day of the month - 1).
+     * @param word The index of the 64 slots.
+     * @return The word, with bit slot set when the slot is booked on the day.
+     */
+    long getBookedWord(int day, int word) {
+        return bookedSlots.getLong((day * words + word) << 3);
+    }
+
+    /**
+     * Sets 64 slots of the bitset of a day.
+     *
+     * @param day The day index (day of the month - 1).
+     * @param word The index of the 64 slots.
+     * @param bits The word, with bit slot set when the slot is booked on the day.
+     */
+    void setBookedWord(int day, int word, long bits) {
+        bookedSlots.putLong((day * words + word) << 3, bits);
+    }
+
+    /**
+     * Moves to larger memory, keeping the values of every slot. The old buffers are dropped.
+     *
+     * @param newCapacity The new number of slots.
+     */
+    void grow(int newCapacity) {
+        int newWords = (newCapacity + 63) >>> 6;
+        ByteBuffer newMasks = allocate(newCapacity * 4);
+        ByteBuffer newPrices = allocate(newCapacity * 8);
+        ByteBuffer newBookedSlots = allocate(31 * newWords * 8);
+
+        newMasks.put(masks.duplicate().clear());
+        newPrices.put(prices.duplicate().clear());
+        for (int day = 0; day < 31; day++) {
+            ByteBuffer dayWords = bookedSlots.duplicate();
+            dayWords.limit((day + 1) * words * 8).position(day * words * 8);
+            newBookedSlots.position(day * newWords * 8);
+            newBookedSlots.put(dayWords);
+        }
+        newMasks.clear();
+        newPrices.clear();
+        newBookedSlots.clear();
+
+        this.masks = newMasks;
+        this.prices = newPrices;
+        this.bookedSlots = newBookedSlots;
+        this.capacity = newCapacity;
+        this.words = newWords;
+    }
+
+    /**
+     * Sets every per-day bitset to 0.
+     */
+    void clearBookedWords() {
+        for (int i = 0, end = 31 * words; i < end; i++) {
+            bookedSlots.putLong(i << 3, 0);
+        }
+    }
+
+    /**
+     * Releases the memory of the inventory. Direct memory is returned to the system once the
+     * released buffers are collected, which Java 17 offers no public API to hasten.
+     */
+    void close() {
+        masks = null;
+        prices = null;
+        bookedSlots = null;
+        capacity = 0;
+        words = 0;
+    }
+
+    /**
+     * Allocates zeroed direct memory in the byte order of the platform.
+     *
+     * @param bytes The number of bytes.
+     * @return The direct buffer.
+     */
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(Math.max(8, bytes)).order(ByteOrder.nativeOrder());
+    }
+}
@@ -5,15 +5,17 @@
  */
 public class PAYDAY extends Discount {
 
-  private static final double DISCOUNT_RATE = 0.93; // 7% discount
+  static final double DISCOUNT_RATE = 0.93; // 7% discount
+  static final int FIRST_PAYDAY = 15;
+  static final int SECOND_PAYDAY = 30;
 
 
   /**
    * Constructs a PAYDAY discount with the base price of the reservation.
    * 
-   * @param basePrice The base price of the reservation before applying the discount.
+   * @param basePrice The base price of the reservation before applying the discount, in cents.
    */
-    public PAYDAY(double basePrice) {
+    public PAYDAY(long basePrice) {
 
       super(basePrice);
     }
@@ -21,11 +23,11 @@ public class PAYDAY extends Discount {
     /**
      * Applies the PAYDAY discount to the base price.
      * 
-     * @return The total price after applying the 7% discount.
+     * @return The total price after applying the 7% discount, in cents.
      */
-    public double applyDiscount(){
+    public long applyDiscount(){
 
-      double discountTotal = basePrice * DISCOUNT_RATE;
+      long discountTotal = Money.multiply(basePrice, DISCOUNT_RATE);
       return discountTotal;
 
     }
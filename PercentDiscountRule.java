@@ -0,0 +1,78 @@
+/**
+ * The PercentDiscountRule class is a DiscountRule that multiplies the total price of a stay
+ * by a fixed rate. It can optionally require a minimum number of nights and/or that the stay
+ * includes at least one night from a set of required days (e.g., the PAYDAY days 15 and 30).
+ */
+public class PercentDiscountRule implements DiscountRule {
+
+    private final String code;
+    private final int statusCode;
+    private final double discountRate;
+    private final int minNights;
+    private final int requiredDays; // Bit (day - 1) is set for every required day, 0 if any day qualifies
+
+    /**
+     * Constructs a PercentDiscountRule.
+     *
+     * @param code The discount code.
+     * @param statusCode The booking status code reported when the discount is applied.
+     * @param discountRate The multiplier applied to the total price (e.g., 0.9 for a 10% discount).
+     * @param minNights The minimum number of nights the stay must have.
+     * @param requiredDays The days of which at least one night must be part of the stay, if any.
+     */
+    public PercentDiscountRule(String code, int statusCode, double discountRate, int minNights, int... requiredDays) {
+        this.code = code;
+        this.statusCode = statusCode;
+        this.discountRate = discountRate;
+        this.minNights = minNights;
+
+        int days = 0;
+        for (int day : requiredDays) {
+            if (day >= 1 && day <= 31) {
+                days |= 1 << (day - 1);
+            }
+        }
+        this.requiredDays = days;
+    }
+
+    @Override
+    public String getCode() {
+        return code;
+    }
+
+    @Override
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public boolean isRedeemable(String code) {
+        return true; // Shared codes can be used by any number of bookings
+    }
+
+    @Override
+    public boolean redeem(String code) {
+        return true;
+    }
+
+    /**
+     * Checks whether the stay is long enough and, if required days are set,
+     * whether one of its nights falls on a required day.
+     *
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     * @return True if the stay is eligible for the discount; false otherwise.
+     */
+    @Override
+    public boolean isEligible(int checkInDate, int checkOutDate) {
+        if (checkOutDate - checkInDate < minNights) {
+            return false;
+        }
+        return requiredDays == 0 || (Room.nightMask(checkInDate, checkOutDate) & requiredDays) != 0;
+    }
+
+    @Override
+    public long applyDiscount(long basePrice, long priceOnDay) {
+        return Money.multiply(basePrice, discountRate);
+    }
+}
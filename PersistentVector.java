@@ -0,0 +1,183 @@
+import java.util.AbstractList;
+
+
+/**
+ * The PersistentVector class is an immutable list that is changed by creating a new version.
+ * Elements are kept in a tree of 32-way nodes, so a new version that replaces or appends one element
+ * copies only the nodes on the path to it (a few arrays of 32 references) and shares every other
+ * node with the previous version. Old versions stay valid and unchanged, which lets them be read by
+ * other threads without locking.
+ *
+ * @param <T> The type of the elements.
+ */
+public final class PersistentVector<T> extends AbstractList<T> {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final PersistentVector<Object> EMPTY = new PersistentVector<Object>(0, 0, new Object[WIDTH]);
+
+    private final int size;
+    private final int shift; // Bits of the index consumed above the leaves, 0 when the root is a leaf
+    private final Object[] root;
+
+    /**
+     * Constructs a version from its tree.
+     *
+     * @param size The number of elements.
+     * @param shift The bits of the index consumed above the leaves.
+     * @param root The root node.
+     */
+    private PersistentVector(int size, int shift, Object[] root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    /**
+     * Returns the empty vector.
+     *
+     * @param <T> The type of the elements.
+     * @return A vector with no elements.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    /**
+     * Builds a vector from the first elements of an array in linear time.
+     *
+     * @param <T> The type of the elements.
+     * @param elements The elements; the array is copied, not kept.
+     * @param count The number of elements to take from the start of the array.
+     * @return A vector with the elements in the same order.
+     */
+    public static <T> PersistentVector<T> of(T[] elements, int count) {
+        if (count == 0) {
+            return empty();
+        }
+
+        Object[] level = new Object[(count + MASK) >>> BITS];
+        for (int i = 0; i < level.length; i++) {
+            Object[] leaf = new Object[WIDTH];
+            System.arraycopy(elements, i << BITS, leaf, 0, Math.min(WIDTH, count - (i << BITS)));
+            level[i] = leaf;
+        }
+
+        int shift = 0;
+        while (level.length > 1) {
+            Object[] parents = new Object[(level.length + MASK) >>> BITS];
+            for (int i = 0; i < parents.length; i++) {
+                Object[] parent = new Object[WIDTH];
+                System.arraycopy(level, i << BITS, parent, 0, Math.min(WIDTH, level.length - (i << BITS)));
+                parents[i] = parent;
+            }
+            level = parents;
+            shift += BITS;
+        }
+        return new PersistentVector<T>(count, shift, (Object[]) level[0]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (T) node[index & MASK];
+    }
+
+    /**
+     * Returns a version with one element replaced. This version is not changed.
+     *
+     * @param index The index of the element to replace (0 to size - 1).
+     * @param element The new element.
+     * @return The new version.
+     */
+    public PersistentVector<T> with(int index, T element) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return new PersistentVector<T>(size, shift, setIn(root, shift, index, element));
+    }
+
+    /**
+     * Returns a version with an element added at the end. This version is not changed.
+     *
+     * @param element The element to add.
+     * @return The new version.
+     */
+    public PersistentVector<T> append(T element) {
+        if (size == 1 << (shift + BITS)) { // The tree is full, so it gets a new root above the old one
+            Object[] newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = pathTo(shift, element);
+            return new PersistentVector<T>(size + 1, shift + BITS, newRoot);
+        }
+        return new PersistentVector<T>(size + 1, shift, appendIn(root, shift, size, element));
+    }
+
+    /**
+     * Copies the path to an index, replacing the element at its end.
+     *
+     * @param node The node at the current level.
+     * @param level The bits of the index consumed below this node.
+     * @param index The index of the element.
+     * @param element The new element.
+     * @return The copy of the node.
+     */
+    private static Object[] setIn(Object[] node, int level, int index, Object element) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = element;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = setIn((Object[]) node[child], level - BITS, index, element);
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the path to the first free index, creating the nodes it is missing, and stores an element there.
+     *
+     * @param node The node at the current level.
+     * @param level The bits of the index consumed below this node.
+     * @param index The first free index.
+     * @param element The element to store.
+     * @return The copy of the node.
+     */
+    private static Object[] appendIn(Object[] node, int level, int index, Object element) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = element;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = node[child] == null ? pathTo(level - BITS, element)
+                    : appendIn((Object[]) node[child], level - BITS, index, element);
+        }
+        return copy;
+    }
+
+    /**
+     * Creates the nodes down to a leaf holding a single element.
+     *
+     * @param level The bits of the index consumed below the top node.
+     * @param element The element of the leaf.
+     * @return The top node.
+     */
+    private static Object[] pathTo(int level, Object element) {
+        Object[] node = new Object[WIDTH];
+        node[0] = level == 0 ? element : pathTo(level - BITS, element);
+        return node;
+    }
+}
@@ -7,7 +7,7 @@
 public class ProfitManager {
 
     private LowLevelInfo lowinfo;
-    private double totalEarnings;
+    private long totalEarnings; // In cents
 
     /**
      * Constructs a ProfitManager with the specified LowLevelInfo.
@@ -23,10 +23,10 @@ public class ProfitManager {
      * associated LowLevelInfo instance.
      */
     public void computeTotalEarnings() {
-        this.totalEarnings = 0.0; // Reset total earnings
+        this.totalEarnings = 0; // Reset total earnings
 
         for (Reservation reservation : lowinfo.getReservations()) {
-            double reserveTotal = reservation.getReservationTotal();
+            long reserveTotal = reservation.getReservationTotalCents();
             this.totalEarnings += reserveTotal;
         }
     }
@@ -36,13 +36,21 @@ public class ProfitManager {
      * @return The total earnings calculated from the reservations.
      */
     public double getTotalEarnings() {
+        return Money.toAmount(getTotalEarningsCents());
+    }
+
+    /**
+     * Returns the total earnings in cents, computing it if necessary.
+     * @return The total earnings calculated from the reservations, in cents.
+     */
+    public long getTotalEarningsCents() {
         computeTotalEarnings(); // Refresh total earnings
         return this.totalEarnings;
     }
 
     /*
     // Set total earnings (not typically used)
-    public void setTotalEarnings(double totalEarnings) {
+    public void setTotalEarnings(long totalEarnings) {
         this.totalEarnings = totalEarnings;
     }
     */
@@ -0,0 +1,269 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * The PromoCodeStore class holds a large set of single-use promo codes that all grant the same discount.
+ * Codes are kept as a sorted array of 64-bit fingerprints rather than as Strings, and a Bloom filter
+ * in front of the array rejects most invalid codes without searching it.
+ * Redemption is atomic, so a code can only ever be used by one booking.
+ */
+public class PromoCodeStore implements DiscountRule {
+
+    private static final int BITS_PER_CODE = 10; // About 1% false positives with 7 hash functions
+    private static final int HASH_FUNCTIONS = 7;
+
+    private final String name;
+    private final int statusCode;
+    private final DiscountRule discount;
+    private final long[] fingerprints; // Sorted fingerprints of every code in the store
+    private final long[] bloom;
+    private final long bloomBits;
+    private final AtomicLongArray redeemed; // Bit i is set once the code at fingerprints[i] is used
+
+    /**
+     * Constructs a PromoCodeStore from a list of codes.
+     *
+     * @param name The name of the promotion the codes belong to.
+     * @param statusCode The booking status code reported when a code from this store is applied.
+     * @param discount The rule deciding the eligibility and price of a stay booked with a code.
+     * @param codes The promo codes in the store.
+     */
+    public PromoCodeStore(String name, int statusCode, DiscountRule discount, ArrayList<String> codes) {
+        this(name, statusCode, discount, fingerprintAll(codes), codes.size());
+    }
+
+    /**
+     * Constructs a PromoCodeStore from the fingerprints of its codes.
+     *
+     * @param name The name of the promotion the codes belong to.
+     * @param statusCode The booking status code reported when a code from this store is applied.
+     * @param discount The rule deciding the eligibility and price of a stay booked with a code.
+     * @param fingerprints The fingerprints of the codes, only the first count entries are used.
+     * @param count The number of codes in the store.
+     */
+    private PromoCodeStore(String name, int statusCode, DiscountRule discount, long[] fingerprints, int count) {
+        this.name = name;
+        this.statusCode = statusCode;
+        this.discount = discount;
+
+        long[] sorted = Arrays.copyOf(fingerprints, count);
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        this.fingerprints = Arrays.copyOf(sorted, unique);
+
+        this.bloomBits = Math.max(64, (long) unique * BITS_PER_CODE);
+        this.bloom = new long[(int) ((bloomBits + 63) / 64)];
+        for (long fingerprint : this.fingerprints) {
+            addToBloom(fingerprint);
+        }
+
+        this.redeemed = new AtomicLongArray((unique + 63) / 64);
+    }
+
+    /**
+     * Creates a PromoCodeStore from a text file containing one code per line.
+     *
+     * @param name The name of the promotion the codes belong to.
+     * @param statusCode The booking status code reported when a code from this store is applied.
+     * @param discount The rule deciding the eligibility and price of a stay booked with a code.
+     * @param fileName The path of the file with the codes.
+     * @return A store with every non-blank code in the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public static PromoCodeStore loadFromFile(String name, int statusCode, DiscountRule discount, String fileName) throws IOException {
+        long[] fingerprints = new long[1024];
+        int count = 0;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (count == fingerprints.length) {
+                    fingerprints = Arrays.copyOf(fingerprints, count * 2);
+                }
+                fingerprints[count++] = fingerprint(line);
+            }
+        }
+
+        return new PromoCodeStore(name, statusCode, discount, fingerprints, count);
+    }
+
+    /**
+     * Returns the name of the promotion the codes belong to.
+     *
+     * @return The promotion name.
+     */
+    @Override
+    public String getCode() {
+        return name;
+    }
+
+    @Override
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public boolean isEligible(int checkInDate, int checkOutDate) {
+        return discount.isEligible(checkInDate, checkOutDate);
+    }
+
+    @Override
+    public long applyDiscount(long basePrice, long priceOnDay) {
+        return discount.applyDiscount(basePrice, priceOnDay);
+    }
+
+    /**
+     * Returns the number of codes in the store.
+     *
+     * @return The number of distinct codes.
+     */
+    public int size() {
+        return fingerprints.length;
+    }
+
+    /**
+     * Checks whether a code belongs to this store, whether or not it was redeemed.
+     *
+     * @param code The code to check.
+     * @return True if the code is in the store; false otherwise.
+     */
+    public boolean contains(String code) {
+        return code != null && indexOf(fingerprint(code)) >= 0;
+    }
+
+    /**
+     * Checks whether a code belongs to this store and has not been redeemed yet.
+     *
+     * @param code The code to check.
+     * @return True if the code can still be redeemed; false otherwise.
+     */
+    @Override
+    public boolean isRedeemable(String code) {
+        if (code == null) {
+            return false;
+        }
+        int index = indexOf(fingerprint(code));
+        return index >= 0 && (redeemed.get(index >> 6) & (1L << index)) == 0;
+    }
+
+    /**
+     * Atomically marks a code as used. Only the first redemption of a code succeeds.
+     *
+     * @param code The code to redeem.
+     * @return True if the code was redeemed by this call; false if it is unknown or was already used.
+     */
+    @Override
+    public boolean redeem(String code) {
+        if (code == null) {
+            return false;
+        }
+        int index = indexOf(fingerprint(code));
+        if (index < 0) {
+            return false;
+        }
+
+        int word = index >> 6;
+        long bit = 1L << index;
+        long current;
+        do {
+            current = redeemed.get(word);
+            if ((current & bit) != 0) {
+                return false; // Already used
+            }
+        } while (!redeemed.compareAndSet(word, current, current | bit));
+        return true;
+    }
+
+    /**
+     * Finds the position of a fingerprint in the sorted array, consulting the Bloom filter first.
+     *
+     * @param fingerprint The fingerprint of a code.
+     * @return The index of the fingerprint, or -1 if it is not in the store.
+     */
+    private int indexOf(long fingerprint) {
+        if (!mightContain(fingerprint)) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(fingerprints, fingerprint);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Sets the Bloom filter bits of a fingerprint.
+     *
+     * @param fingerprint The fingerprint of a code.
+     */
+    private void addToBloom(long fingerprint) {
+        long h1 = fingerprint;
+        long h2 = (fingerprint >>> 32) | 1;
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bloomBits);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks the Bloom filter bits of a fingerprint.
+     *
+     * @param fingerprint The fingerprint of a code.
+     * @return False if the code is definitely not in the store, true if it might be.
+     */
+    private boolean mightContain(long fingerprint) {
+        long h1 = fingerprint;
+        long h2 = (fingerprint >>> 32) | 1;
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bloomBits);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the fingerprints of a list of codes.
+     *
+     * @param codes The codes to fingerprint.
+     * @return The fingerprints in the same order as the codes.
+     */
+    private static long[] fingerprintAll(ArrayList<String> codes) {
+        long[] fingerprints = new long[codes.size()];
+        for (int i = 0; i < fingerprints.length; i++) {
+            fingerprints[i] = fingerprint(codes.get(i));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Computes a 64-bit fingerprint of a code (FNV-1a followed by a final mix).
+     * With 64 bits, two distinct codes among millions collide with negligible probability.
+     *
+     * @param code The code to fingerprint.
+     * @return The fingerprint of the code.
+     */
+    private static long fingerprint(String code) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < code.length(); i++) {
+            hash ^= code.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
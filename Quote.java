@@ -0,0 +1,169 @@
+/**
+ * The Quote class describes what a booking would cost without making it.
+ * It holds the availability of a room type in a hotel for a date range, the price of every night
+ * of the stay, and the best discount that applies to it. Quotes are immutable.
+ */
+public class Quote {
+    private final String hotelName;
+    private final int roomType;
+    private final int checkInDate;
+    private final int checkOutDate;
+    private final int availableRooms;
+    private final long[] nightlyPrices; // In cents
+    private final long subtotal;
+    private final DiscountRule discount;
+    private final long total;
+
+    /**
+     * Constructs a Quote with the specified details.
+     *
+     * @param hotelName The name of the hotel.
+     * @param roomType The type of room quoted.
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     * @param availableRooms The number of rooms of the type free for the whole stay.
+     * @param nightlyPrices The price of every night from check-in to check-out, in cents.
+     * @param subtotal The price of the stay before discounts, in cents.
+     * @param discount The discount applied to the stay, or null if none applies.
+     * @param total The price of the stay after the discount, in cents.
+     */
+    public Quote(String hotelName, int roomType, int checkInDate, int checkOutDate, int availableRooms,
+            long[] nightlyPrices, long subtotal, DiscountRule discount, long total) {
+        this.hotelName = hotelName;
+        this.roomType = roomType;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.availableRooms = availableRooms;
+        this.nightlyPrices = nightlyPrices;
+        this.subtotal = subtotal;
+        this.discount = discount;
+        this.total = total;
+    }
+
+    /**
+     * Returns the name of the hotel.
+     *
+     * @return The hotel name.
+     */
+    public String getHotelName() {
+        return hotelName;
+    }
+
+    /**
+     * Returns the type of room quoted.
+     *
+     * @return The room type.
+     */
+    public int getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Returns the check-in date of the stay.
+     *
+     * @return The check-in date (1-31).
+     */
+    public int getCheckInDate() {
+        return checkInDate;
+    }
+
+    /**
+     * Returns the check-out date of the stay.
+     *
+     * @return The check-out date (1-31).
+     */
+    public int getCheckOutDate() {
+        return checkOutDate;
+    }
+
+    /**
+     * Checks whether at least one room of the type is free for the whole stay.
+     *
+     * @return True if the stay can be booked; false otherwise.
+     */
+    public boolean isAvailable() {
+        return availableRooms > 0;
+    }
+
+    /**
+     * Returns the number of rooms of the type free for the whole stay.
+     *
+     * @return The number of available rooms.
+     */
+    public int getAvailableRooms() {
+        return availableRooms;
+    }
+
+    /**
+     * Returns the price of a single night of the stay.
+     *
+     * @param day The night, from the check-in date (inclusive) to the check-out date (exclusive).
+     * @return The price of the night, or 0 if the day is not part of the stay.
+     */
+    public double getNightlyPrice(int day) {
+        if (day < checkInDate || day >= checkOutDate) {
+            return 0;
+        }
+        return Money.toAmount(nightlyPrices[day - checkInDate]);
+    }
+
+    /**
+     * Returns the price of the stay before discounts.
+     *
+     * @return The subtotal of the stay.
+     */
+    public double getSubtotal() {
+        return Money.toAmount(subtotal);
+    }
+
+    /**
+     * Returns the price of the stay before discounts in cents.
+     *
+     * @return The subtotal of the stay in cents.
+     */
+    public long getSubtotalCents() {
+        return subtotal;
+    }
+
+    /**
+     * Returns the discount applied to the stay.
+     *
+     * @return The applied DiscountRule, or null if no discount applies.
+     */
+    public DiscountRule getDiscount() {
+        return discount;
+    }
+
+    /**
+     * Returns the status code simulateBooking would report for this stay when booked with the discount
+     * of this quote. A quote made without a discount code applies the best discount, so its status code
+     * is that of simulateBooking given the code of getDiscount, not of simulateBooking without a code,
+     * which applies no discount and reports 4.
+     *
+     * @return The discount's status code, 4 if no discount applies, or 5 if no room is available.
+     */
+    public int getStatusCode() {
+        if (availableRooms == 0) {
+            return 5;
+        }
+        return discount != null ? discount.getStatusCode() : 4;
+    }
+
+    /**
+     * Returns the price of the stay after the discount.
+     *
+     * @return The total price of the stay.
+     */
+    public double getTotal() {
+        return Money.toAmount(total);
+    }
+
+    /**
+     * Returns the price of the stay after the discount in cents, e.g. to compare quotes exactly.
+     *
+     * @return The total price of the stay in cents.
+     */
+    public long getTotalCents() {
+        return total;
+    }
+}
@@ -0,0 +1,290 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * The QuoteCache class keeps recently computed quotes so that identical searches do not have to be priced again.
+ * It holds at most a fixed number of quotes and evicts the least recently used one when full.
+ * Quotes are invalidated precisely: only the entries of a hotel whose room type and dates are affected
+ * by a rate change, price update or booking are removed.
+ * All methods are synchronized so the cache can be shared by concurrent searches.
+ */
+public class QuoteCache {
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Quote> quotes;
+    private final HashMap<Hotel, ArrayList<Key>> keysByHotel; // Index used to invalidate a hotel without scanning the cache
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Constructs an empty QuoteCache.
+     *
+     * @param capacity The maximum number of quotes kept in the cache.
+     */
+    public QuoteCache(int capacity) {
+        this.capacity = capacity;
+        this.keysByHotel = new HashMap<Hotel, ArrayList<Key>>();
+        this.quotes = new LinkedHashMap<Key, Quote>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Quote> eldest) {
+                if (size() > QuoteCache.this.capacity) {
+                    removeFromIndex(eldest.getKey());
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Retrieves a cached quote.
+     *
+     * @param hotel The quoted hotel.
+     * @param roomType The quoted room type.
+     * @param checkInDate The check-in date of the stay.
+     * @param checkOutDate The check-out date of the stay.
+     * @param discountCode The discount code of the quote, may be null.
+     * @return The cached Quote, or null if it is not in the cache.
+     */
+    public synchronized Quote get(Hotel hotel, int roomType, int checkInDate, int checkOutDate, String discountCode) {
+        Quote quote = quotes.get(new Key(hotel, roomType, checkInDate, checkOutDate, discountCode));
+        if (quote != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return quote;
+    }
+
+    /**
+     * Stores a quote in the cache, evicting the least recently used quote if the cache is full.
+     *
+     * @param hotel The quoted hotel.
+     * @param discountCode The discount code of the quote, may be null.
+     * @param quote The Quote to store.
+     */
+    public synchronized void put(Hotel hotel, String discountCode, Quote quote) {
+        Key key = new Key(hotel, quote.getRoomType(), quote.getCheckInDate(), quote.getCheckOutDate(), discountCode);
+        if (quotes.put(key, quote) != null) {
+            return; // Replaced a cached quote, whose key is already indexed
+        }
+
+        ArrayList<Key> keys = keysByHotel.get(hotel);
+        if (keys == null) {
+            keys = new ArrayList<Key>();
+            keysByHotel.put(hotel, keys);
+        }
+        key.position = keys.size();
+        keys.add(key);
+    }
+
+    /**
+     * Removes every quote of a hotel.
+     *
+     * @param hotel The hotel whose quotes are no longer valid.
+     */
+    public synchronized void invalidateHotel(Hotel hotel) {
+        ArrayList<Key> keys = keysByHotel.remove(hotel);
+        if (keys != null) {
+            for (int i = 0; i < keys.size(); i++) {
+                quotes.remove(keys.get(i));
+            }
+            invalidations += keys.size();
+        }
+    }
+
+    /**
+     * Removes the quotes of a hotel, for any room type, whose stay includes a night in a date range.
+     * Used when the rates of those nights change.
+     *
+     * @param hotel The hotel whose rates changed.
+     * @param fromDay The first changed night (inclusive).
+     * @param toDay The last changed night (exclusive).
+     */
+    public synchronized void invalidateDates(Hotel hotel, int fromDay, int toDay) {
+        invalidate(hotel, 0, fromDay, toDay);
+    }
+
+    /**
+     * Removes the quotes of a room type in a hotel whose stay includes a night in a date range.
+     * Used when rooms of the type are booked or released for those nights.
+     *
+     * @param hotel The hotel whose inventory changed.
+     * @param roomType The room type whose inventory changed.
+     * @param fromDay The first changed night (inclusive).
+     * @param toDay The last changed night (exclusive).
+     */
+    public synchronized void invalidateRooms(Hotel hotel, int roomType, int fromDay, int toDay) {
+        invalidate(hotel, roomType, fromDay, toDay);
+    }
+
+    /**
+     * Removes every quote from the cache.
+     */
+    public synchronized void clear() {
+        invalidations += quotes.size();
+        quotes.clear();
+        keysByHotel.clear();
+    }
+
+    /**
+     * Returns the number of quotes in the cache.
+     *
+     * @return The number of cached quotes.
+     */
+    public synchronized int size() {
+        return quotes.size();
+    }
+
+    /**
+     * Returns the number of lookups that found a cached quote.
+     *
+     * @return The number of cache hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that did not find a cached quote.
+     *
+     * @return The number of cache misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of quotes evicted because the cache was full.
+     *
+     * @return The number of evictions.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of quotes removed because they were no longer valid.
+     *
+     * @return The number of invalidated quotes.
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Returns the fraction of lookups that found a cached quote.
+     *
+     * @return The hit rate between 0 and 1, or 0 if there were no lookups.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Removes the quotes of a hotel that match a room type and overlap a date range.
+     *
+     * @param hotel The hotel whose quotes are checked.
+     * @param roomType The room type to match, or 0 to match every type.
+     * @param fromDay The first night of the range (inclusive).
+     * @param toDay The last night of the range (exclusive).
+     */
+    private void invalidate(Hotel hotel, int roomType, int fromDay, int toDay) {
+        ArrayList<Key> keys = keysByHotel.get(hotel);
+        if (keys == null) {
+            return;
+        }
+
+        // Indexed loop from the end, so removing a key never moves one that is still to be checked
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            Key key = keys.get(i);
+            if ((roomType == 0 || key.roomType == roomType) && key.checkInDate < toDay && fromDay < key.checkOutDate) {
+                removeAt(keys, i);
+                quotes.remove(key);
+                invalidations++;
+            }
+        }
+        if (keys.isEmpty()) {
+            keysByHotel.remove(hotel);
+        }
+    }
+
+    /**
+     * Removes an evicted key from the hotel index.
+     *
+     * @param key The evicted key.
+     */
+    private void removeFromIndex(Key key) {
+        ArrayList<Key> keys = keysByHotel.get(key.hotel);
+        if (keys != null) {
+            removeAt(keys, key.position);
+            if (keys.isEmpty()) {
+                keysByHotel.remove(key.hotel);
+            }
+        }
+    }
+
+    /**
+     * Removes a key from the index of its hotel in constant time by moving the last key into its place.
+     *
+     * @param keys The keys of a hotel.
+     * @param position The position of the key to remove.
+     */
+    private static void removeAt(ArrayList<Key> keys, int position) {
+        Key last = keys.remove(keys.size() - 1);
+        if (position < keys.size()) {
+            keys.set(position, last);
+            last.position = position;
+        }
+    }
+
+    /**
+     * Identifies a cached quote by hotel, room type, stay and discount code.
+     */
+    private static final class Key {
+        private final Hotel hotel;
+        private final int roomType;
+        private final int checkInDate;
+        private final int checkOutDate;
+        private final String discountCode;
+        private int position; // Position of the key in the index of its hotel
+
+        private Key(Hotel hotel, int roomType, int checkInDate, int checkOutDate, String discountCode) {
+            this.hotel = hotel;
+            this.roomType = roomType;
+            this.checkInDate = checkInDate;
+            this.checkOutDate = checkOutDate;
+            this.discountCode = discountCode;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hotel == key.hotel && roomType == key.roomType && checkInDate == key.checkInDate
+                    && checkOutDate == key.checkOutDate
+                    && (discountCode == null ? key.discountCode == null : discountCode.equals(key.discountCode));
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(hotel);
+            hash = 31 * hash + roomType;
+            hash = 31 * hash + checkInDate;
+            hash = 31 * hash + checkOutDate;
+            hash = 31 * hash + (discountCode == null ? 0 : discountCode.hashCode());
+            return hash;
+        }
+    }
+}
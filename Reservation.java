@@ -8,7 +8,9 @@ public class Reservation {
     private int checkInDate;
     private int checkOutDate;
     private Room room;
-    private double reservationTotal;
+    private long reservationTotal; // In cents
+    private int groupId; // 0 if the reservation is not part of a group booking
+    private int snapshotIndex = -1; // Index of the copy of the reservation in the hotel's snapshot
 
     
     /**
@@ -18,9 +20,9 @@ public class Reservation {
      * @param checkInDate The check-in date for the reservation (1-31).
      * @param checkOutDate The check-out date for the reservation (1-31).
      * @param room The room that is reserved.
-     * @param reservationTotal The total cost of the reservation.
+     * @param reservationTotal The total cost of the reservation, in cents.
      */
-    public Reservation(String guestName, int checkInDate, int checkOutDate, Room room, double reservationTotal) {
+    public Reservation(String guestName, int checkInDate, int checkOutDate, Room room, long reservationTotal) {
         this.guestName = guestName;
         this.checkInDate = checkInDate;
         this.checkOutDate = checkOutDate;
@@ -74,20 +76,65 @@ public class Reservation {
     }
 
     /**
-     * Returns the total cost of the reservation.
+     * Returns the total cost of the reservation, for display.
      * 
      * @return The reservation total.
      */
     public double getReservationTotal() {
+        return Money.toAmount(this.reservationTotal);
+    }
+
+    /**
+     * Returns the total cost of the reservation in cents.
+     * 
+     * @return The reservation total in cents.
+     */
+    public long getReservationTotalCents() {
         return this.reservationTotal;
     }
 
     /**
      * Sets the total cost of the reservation.
      * 
-     * @param reservationTotal The total cost to set for this reservation.
+     * @param reservationTotal The total cost to set for this reservation, in cents.
      */
-    public void setReservationTotal(double reservationTotal) {
+    public void setReservationTotal(long reservationTotal) {
         this.reservationTotal = reservationTotal;
     }
+
+    /**
+     * Returns the id of the group booking this reservation belongs to.
+     * 
+     * @return The group id, or 0 if the reservation was booked on its own.
+     */
+    public int getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * Sets the id of the group booking this reservation belongs to.
+     * 
+     * @param groupId The group id, or 0 if the reservation was booked on its own.
+     */
+    public void setGroupId(int groupId) {
+        this.groupId = groupId;
+    }
+
+    /**
+     * Returns where the copy of the reservation is in the reservations of the hotel's last snapshot.
+     * 
+     * @return The index of the copy, or -1 if the reservation was never published.
+     */
+    int getSnapshotIndex() {
+        return snapshotIndex;
+    }
+
+    /**
+     * Sets where the copy of the reservation is in the reservations of the hotel's last snapshot.
+     * 
+     * @param snapshotIndex The index of the copy.
+     */
+    void setSnapshotIndex(int snapshotIndex) {
+        this.snapshotIndex = snapshotIndex;
+    }
 }
@@ -0,0 +1,111 @@
+/**
+ * The ReservationSnapshot class is an immutable copy of a reservation as it was when a
+ * HotelSnapshot was published.
+ */
+public final class ReservationSnapshot {
+    private final Reservation source; // The copied reservation, to check a recorded index still points at its copy
+    private final String guestName;
+    private final int checkInDate;
+    private final int checkOutDate;
+    private final RoomSnapshot room;
+    private final long reservationTotal; // In cents
+    private final int groupId; // 0 if the reservation is not part of a group booking
+
+    /**
+     * Constructs a ReservationSnapshot with the specified values.
+     *
+     * @param reservation The reservation to copy.
+     * @param room The snapshot of the reserved room.
+     */
+    ReservationSnapshot(Reservation reservation, RoomSnapshot room) {
+        this.source = reservation;
+        this.guestName = reservation.getGuestName();
+        this.checkInDate = reservation.getCheckInDate();
+        this.checkOutDate = reservation.getCheckOutDate();
+        this.room = room;
+        this.reservationTotal = reservation.getReservationTotalCents();
+        this.groupId = reservation.getGroupId();
+    }
+
+    /**
+     * Checks whether this is the copy of a reservation.
+     *
+     * @param reservation The reservation.
+     * @return True if the snapshot was copied from the reservation; false otherwise.
+     */
+    boolean isCopyOf(Reservation reservation) {
+        return source == reservation;
+    }
+
+    /**
+     * Returns the reservation this is a copy of.
+     *
+     * @return The copied reservation.
+     */
+    Reservation getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the name of the guest.
+     *
+     * @return The guest's name.
+     */
+    public String getGuestName() {
+        return guestName;
+    }
+
+    /**
+     * Returns the check-in date.
+     *
+     * @return The check-in date (1-31).
+     */
+    public int getCheckInDate() {
+        return checkInDate;
+    }
+
+    /**
+     * Returns the check-out date.
+     *
+     * @return The check-out date (1-31).
+     */
+    public int getCheckOutDate() {
+        return checkOutDate;
+    }
+
+    /**
+     * Returns the reserved room as it was when the reservation was first published.
+     *
+     * @return The snapshot of the room.
+     */
+    public RoomSnapshot getRoom() {
+        return room;
+    }
+
+    /**
+     * Returns the total price of the reservation, for display.
+     *
+     * @return The reservation total.
+     */
+    public double getReservationTotal() {
+        return Money.toAmount(reservationTotal);
+    }
+
+    /**
+     * Returns the total price of the reservation in cents.
+     *
+     * @return The reservation total in cents.
+     */
+    public long getReservationTotalCents() {
+        return reservationTotal;
+    }
+
+    /**
+     * Returns the group id of the reservation.
+     *
+     * @return The id shared by the reservations of a group booking, or 0 if not part of a group.
+     */
+    public int getGroupId() {
+        return groupId;
+    }
+}
@@ -2,28 +2,147 @@
 /**
  * The Room class represents an abstract room in a hotel, including its name, type, price,
  * and availability for each day of the month.
+ * Availability is kept as a bit mask where bit (day - 1) is set when the room is booked on that day,
+ * so a whole stay can be checked with a single bitwise operation.
+ *
+ * A Room is a handle onto a slot of a RoomStore, which holds the values of every room of a hotel
+ * in primitive arrays. A new Room has a store of its own until it is added to a hotel.
  */
 public abstract class Room {
-	protected String roomName;
-	protected int type;
-	protected double price;
-	protected boolean[] availability; // Availability for each day of the month
+	public static final int ALL_DAYS = 0x7FFFFFFF; // Bits of the 31 days of the month
+
+	private RoomStore store;
+	private int slot;
+	private String customName; // Only set when the name is not "Room " followed by a number
 
 	/**
      * Constructs a Room with the specified name, type, and price.
      * 
      * @param roomName The name of the room.
      * @param type The type of the room (e.g., Standard, Deluxe, Executive).
-     * @param price The price of the room per night.
-     */
-    public Room(String roomName, int type, double price) {
-        this.roomName = roomName;
-        this.type = type;
-        this.price = price;
-        this.availability = new boolean[31]; // 31 days in a month
-        for (int i = 0; i < 31; i++) {
-            this.availability[i] = true; // All days are available by default
+     * @param price The price of the room per night, in cents.
+     */
+    public Room(String roomName, int type, long price) {
+        int number = parseNumber(roomName);
+        if (number < 0) {
+            this.customName = roomName;
+            number = 0;
+        }
+        RoomStore.detach(this, number, type, price, 0); // All days are available by default
+    }
+
+    /**
+     * Constructs a handle onto a room that a store already holds. Used by RoomStore to create
+     * the handles of rooms added as values only.
+     * 
+     * @param store The store holding the room.
+     * @param slot The slot of the room in the store.
+     */
+    Room(RoomStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+    }
+
+    /**
+     * Extracts the number from a room name of the form "Room 12".
+     * 
+     * @param roomName The name of the room.
+     * @return The room number, or -1 if the name has another form.
+     */
+    private static int parseNumber(String roomName) {
+        // At most 9 digits so the number fits an int, without leading zeros so the name can be rebuilt
+        if (roomName == null || !roomName.startsWith("Room ") || roomName.length() < 6 || roomName.length() > 14
+                || (roomName.charAt(5) == '0' && roomName.length() > 6)) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = 5; i < roomName.length(); i++) {
+            char c = roomName.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    /**
+     * Points this handle at a slot of a store. Called by RoomStore when the room is stored or moved.
+     * 
+     * @param store The store holding the room.
+     * @param slot The slot of the room in the store.
+     */
+    void moveTo(RoomStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+    }
+
+    /**
+     * Returns the store holding the values of the room.
+     * 
+     * @return The RoomStore of the room.
+     */
+    RoomStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the slot of the room in its store.
+     * 
+     * @return The slot of the room.
+     */
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Returns the name of the room if it is not built from the room number.
+     *
+     * @return The custom name, or null if the name is "Room " followed by the room number.
+     */
+    String getCustomName() {
+        return customName;
+    }
+
+    /**
+     * Builds a bit mask of the nights from check-in (inclusive) to check-out (exclusive).
+     * 
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     * @return A mask with bit (day - 1) set for every night of the stay.
+     */
+    public static int nightMask(int checkInDate, int checkOutDate) {
+        return ((1 << (checkOutDate - 1)) - 1) & ~((1 << (checkInDate - 1)) - 1);
+    }
+
+    /**
+     * Counts the free days directly before a day, up to the closest booked day or day 1.
+     * 
+     * @param bookedMask The booked days of a room.
+     * @param day The day of the month (1-31).
+     * @return The number of consecutive free days before the day.
+     */
+    public static int freeDaysBefore(int bookedMask, int day) {
+        int bookedBefore = bookedMask & ((1 << (day - 1)) - 1);
+        if (bookedBefore == 0) {
+            return day - 1;
+        }
+        return day - 2 - (31 - Integer.numberOfLeadingZeros(bookedBefore));
+    }
+
+    /**
+     * Counts the free days starting at a day, up to the closest booked day or the end of the month.
+     * 
+     * @param bookedMask The booked days of a room.
+     * @param day The day of the month (1-32).
+     * @return The number of consecutive free days from the day on.
+     */
+    public static int freeDaysFrom(int bookedMask, int day) {
+        int bookedAfter = bookedMask & ALL_DAYS & ~((1 << (day - 1)) - 1);
+        if (bookedAfter == 0) {
+            return 32 - day;
         }
+        return Integer.numberOfTrailingZeros(bookedAfter) - (day - 1);
     }
 
     /**
@@ -32,25 +151,34 @@ public abstract class Room {
      * @return The room's name.
      */
     public String getRoomName() {
-        return this.roomName;
+        return customName != null ? customName : store.getName(slot);
     }
 
     /**
-     * Returns the price of the room per night.
+     * Returns the price of the room per night, for display.
      * 
      * @return The room's price.
      */
     public double getPrice() {
-        return this.price;
+        return Money.toAmount(store.getPrice(slot));
+    }
+
+    /**
+     * Returns the price of the room per night in cents.
+     * 
+     * @return The room's price in cents.
+     */
+    public long getPriceCents() {
+        return store.getPrice(slot);
     }
 
     /**
      * Sets the price of the room per night.
      * 
-     * @param price The new price to set.
+     * @param price The new price to set, in cents.
      */
-    public void setPrice(double price) {
-        this.price = price; 
+    public void setPrice(long price) {
+        store.setPrice(slot, price);
     }
 
     /**
@@ -60,7 +188,7 @@ public abstract class Room {
      * @return True if the room is available on the specified day; false otherwise.
      */
     public boolean getAvailabilityDay(int day) {
-        return this.availability[day - 1];
+        return (store.getBookedMask(slot) & (1 << (day - 1))) == 0;
     }
 
     /**
@@ -70,7 +198,53 @@ public abstract class Room {
      * @param available True to set the room as available; false to set it as unavailable.
      */
     public void setAvailabilityDay(int day, boolean available) {
-        this.availability[day - 1] = available;
+        int bookedMask = store.getBookedMask(slot);
+        if (available) {
+            bookedMask &= ~(1 << (day - 1));
+        } else {
+            bookedMask |= 1 << (day - 1);
+        }
+        store.setBookedMask(slot, bookedMask);
+    }
+
+    /**
+     * Returns the days on which the room is booked.
+     * 
+     * @return A mask with bit (day - 1) set for every booked day.
+     */
+    public int getBookedMask() {
+        return store.getBookedMask(slot);
+    }
+
+    /**
+     * Checks whether the room is available for every night of a stay.
+     * 
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31), exclusive.
+     * @return True if the room is available from check-in to check-out; false otherwise.
+     */
+    public boolean isAvailable(int checkInDate, int checkOutDate) {
+        return (store.getBookedMask(slot) & nightMask(checkInDate, checkOutDate)) == 0;
+    }
+
+    /**
+     * Marks the room as booked for every night of a stay.
+     * 
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31), exclusive.
+     */
+    public void reserveNights(int checkInDate, int checkOutDate) {
+        store.setBookedMask(slot, store.getBookedMask(slot) | nightMask(checkInDate, checkOutDate));
+    }
+
+    /**
+     * Marks the room as available again for every night of a stay.
+     * 
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31), exclusive.
+     */
+    public void releaseNights(int checkInDate, int checkOutDate) {
+        store.setBookedMask(slot, store.getBookedMask(slot) & ~nightMask(checkInDate, checkOutDate));
     }
 
     /**
@@ -79,7 +253,7 @@ public abstract class Room {
      * @return The room type.
      */
     public int getRoomType() {
-        return type;
+        return store.getType(slot);
     }
 
     /**
@@ -88,6 +262,6 @@ public abstract class Room {
      * @param type The new room type to set.
      */
     public void setRoomType(int type) {
-        this.type = type;
+        store.setType(slot, type);
     }
 }
\ No newline at end of file
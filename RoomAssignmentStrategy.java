@@ -0,0 +1,21 @@
+import java.util.List;
+
+
+/**
+ * A RoomAssignmentStrategy decides which of the free rooms of a type a new stay is assigned to.
+ * The choice does not change whether a stay can be booked, but it decides how the remaining free nights
+ * are spread over the rooms and therefore which later stays still fit.
+ */
+public interface RoomAssignmentStrategy {
+
+    /**
+     * Selects a room of a type that is available for every night of a stay.
+     *
+     * @param rooms The rooms to choose from.
+     * @param roomType The type of room requested.
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     * @return The selected Room, or null if no room of the type is available.
+     */
+    Room selectRoom(List<Room> rooms, int roomType, int checkInDate, int checkOutDate);
+}
@@ -0,0 +1,156 @@
+/**
+ * The RoomHold class represents a temporary hold on a room for a stay, e.g. while a guest pays.
+ * The held nights are blocked like a reservation until the hold is confirmed, released or expires.
+ * The stay is priced when the room is held, before its own nights raise the occupancy, and a
+ * confirmed hold is booked at that price.
+ * Holds are linked directly into the bucket lists of a TimingWheel, so scheduling one allocates nothing else.
+ */
+public class RoomHold {
+    private final long holdId;
+    private final Hotel hotel;
+    private final Room room;
+    private final int checkInDate;
+    private final int checkOutDate;
+    private final long price; // Price of the stay before any discount, in cents
+    private final long priceOnDay; // Price of the night a discount rule may refer to, in cents
+    private long deadlineTick;
+    private boolean active;
+    private RoomHold next; // Next hold in the same timing wheel bucket
+
+    /**
+     * Constructs an active RoomHold.
+     *
+     * @param holdId The id of the hold.
+     * @param hotel The hotel of the held room.
+     * @param room The held room.
+     * @param checkInDate The check-in date of the held stay (1-31).
+     * @param checkOutDate The check-out date of the held stay (1-31).
+     * @param price The price of the stay before any discount, in cents.
+     * @param priceOnDay The price of the night a discount rule may refer to, in cents.
+     */
+    public RoomHold(long holdId, Hotel hotel, Room room, int checkInDate, int checkOutDate, long price, long priceOnDay) {
+        this.holdId = holdId;
+        this.hotel = hotel;
+        this.room = room;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.price = price;
+        this.priceOnDay = priceOnDay;
+        this.active = true;
+    }
+
+    /**
+     * Returns the id of the hold.
+     *
+     * @return The hold id.
+     */
+    public long getHoldId() {
+        return holdId;
+    }
+
+    /**
+     * Returns the hotel of the held room.
+     *
+     * @return The hotel.
+     */
+    public Hotel getHotel() {
+        return hotel;
+    }
+
+    /**
+     * Returns the held room.
+     *
+     * @return The room.
+     */
+    public Room getRoom() {
+        return room;
+    }
+
+    /**
+     * Returns the check-in date of the held stay.
+     *
+     * @return The check-in date (1-31).
+     */
+    public int getCheckInDate() {
+        return checkInDate;
+    }
+
+    /**
+     * Returns the check-out date of the held stay.
+     *
+     * @return The check-out date (1-31).
+     */
+    public int getCheckOutDate() {
+        return checkOutDate;
+    }
+
+    /**
+     * Returns the price of the held stay, computed when the room was held.
+     *
+     * @return The price before any discount, in cents.
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    /**
+     * Returns the price of the night a discount rule may refer to, computed when the room was held.
+     *
+     * @return The price of the night, in cents.
+     */
+    public long getPriceOnDay() {
+        return priceOnDay;
+    }
+
+    /**
+     * Returns the timing wheel tick at which the hold expires.
+     *
+     * @return The deadline tick.
+     */
+    public long getDeadlineTick() {
+        return deadlineTick;
+    }
+
+    /**
+     * Sets the timing wheel tick at which the hold expires.
+     *
+     * @param deadlineTick The deadline tick.
+     */
+    public void setDeadlineTick(long deadlineTick) {
+        this.deadlineTick = deadlineTick;
+    }
+
+    /**
+     * Checks whether the hold still blocks its room.
+     *
+     * @return True until the hold is confirmed, released or expired.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Marks the hold as no longer blocking its room. The timing wheel drops inactive holds lazily.
+     */
+    public void deactivate() {
+        this.active = false;
+    }
+
+    /**
+     * Returns the next hold in the same timing wheel bucket.
+     *
+     * @return The next hold, or null at the end of the bucket.
+     */
+    public RoomHold getNext() {
+        return next;
+    }
+
+    /**
+     * Sets the next hold in the same timing wheel bucket.
+     *
+     * @param next The next hold, or null at the end of the bucket.
+     */
+    public void setNext(RoomHold next) {
+        this.next = next;
+    }
+}
@@ -0,0 +1,252 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+
+
+/**
+ * The RoomRepacker class moves reservations between rooms of the same type to recover capacity.
+ * A stay can be rejected even though enough nights are free, because the free nights are spread
+ * over different rooms. Moving a few reservations to other rooms of the same type (same price)
+ * can open a room for the whole stay.
+ *
+ * Nights that are blocked without a reservation (e.g. by holds) are never moved.
+ */
+public class RoomRepacker {
+
+    private LowLevelInfo lowinfo;
+
+    /**
+     * Constructs a RoomRepacker for the rooms and reservations of a hotel.
+     *
+     * @param lowinfo The LowLevelInfo instance of the hotel.
+     */
+    public RoomRepacker(LowLevelInfo lowinfo) {
+        this.lowinfo = lowinfo;
+    }
+
+    /**
+     * Tries to free a room of a type for a whole stay by moving at most a given number of reservations
+     * out of it. Reservations are only moved if the stay can be opened; otherwise nothing changes.
+     *
+     * @param roomType The type of room requested.
+     * @param checkInDate The check-in date (1-31).
+     * @param checkOutDate The check-out date (1-31).
+     * @param maxMoves The maximum number of reservations that may be moved.
+     * @return The Room that is now free for the stay, or null if no room could be opened.
+     */
+    public Room openSlot(int roomType, int checkInDate, int checkOutDate, int maxMoves) {
+        if (maxMoves <= 0) {
+            return null;
+        }
+
+        ArrayList<Room> rooms = roomsOfType(roomType);
+        ArrayList<ArrayList<Reservation>> reservationsByRoom = reservationsByRoom(rooms);
+        int[] fixed = fixedMasks(rooms, reservationsByRoom);
+        int stay = Room.nightMask(checkInDate, checkOutDate);
+
+        // Try the rooms that need the fewest moves first
+        for (int moves = 1; moves <= maxMoves; moves++) {
+            for (int target = 0; target < rooms.size(); target++) {
+                if ((fixed[target] & stay) != 0) {
+                    continue; // Blocked by something that cannot be moved
+                }
+
+                ArrayList<Reservation> conflicts = new ArrayList<Reservation>();
+                for (Reservation reservation : reservationsByRoom.get(target)) {
+                    if ((nightsOf(reservation) & stay) != 0) {
+                        conflicts.add(reservation);
+                    }
+                }
+                if (conflicts.size() != moves) {
+                    continue;
+                }
+
+                Room[] destinations = planMoves(rooms, target, stay, conflicts);
+                if (destinations != null) {
+                    lowinfo.moveReservations(conflicts, destinations); // Under one lock, so no query sees a half move
+                    return rooms.get(target);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reassigns every reservation of a room type so the reservations are packed into as few rooms
+     * as possible, leaving the longest possible runs of free nights. The new assignment is the
+     * greedy interval partitioning by check-in date, placing each stay in the room whose booked
+     * nights end closest before it. Reservations keep their room when it fits as well as any other.
+     *
+     * @param roomType The type of room to repack.
+     * @param maxMoves The maximum number of reservations that may be moved.
+     * @return The number of reservations moved; -1 if repacking would move more than maxMoves
+     *         reservations, or -3 if a reservation fits no room around the nights that cannot be moved
+     *         (e.g. held nights), in which case nothing is changed.
+     */
+    public int repack(int roomType, int maxMoves) {
+        ArrayList<Room> rooms = roomsOfType(roomType);
+        ArrayList<ArrayList<Reservation>> reservationsByRoom = reservationsByRoom(rooms);
+        int[] masks = fixedMasks(rooms, reservationsByRoom);
+
+        ArrayList<Reservation> reservations = new ArrayList<Reservation>();
+        for (ArrayList<Reservation> roomReservations : reservationsByRoom) {
+            reservations.addAll(roomReservations);
+        }
+        reservations.sort((a, b) -> a.getCheckInDate() != b.getCheckInDate()
+                ? a.getCheckInDate() - b.getCheckInDate()
+                : b.getCheckOutDate() - a.getCheckOutDate());
+
+        Room[] assigned = new Room[reservations.size()];
+        int moves = 0;
+        for (int i = 0; i < reservations.size(); i++) {
+            Reservation reservation = reservations.get(i);
+            int nights = nightsOf(reservation);
+
+            int best = -1;
+            int bestWaste = Integer.MAX_VALUE;
+            for (int r = 0; r < rooms.size(); r++) {
+                if ((masks[r] & nights) != 0) {
+                    continue;
+                }
+                int waste = BestFitAssignment.freeNightsAround(masks[r], reservation.getCheckInDate(),
+                        reservation.getCheckOutDate());
+                if (waste < bestWaste || (waste == bestWaste && rooms.get(r) == reservation.getRoom())) {
+                    best = r;
+                    bestWaste = waste;
+                }
+            }
+            if (best < 0) {
+                // Nights blocked without a reservation (holds) can leave a stay without a room in this
+                // order even though the current assignment is valid, so the current one is kept
+                return -3;
+            }
+
+            masks[best] |= nights;
+            assigned[i] = rooms.get(best);
+            if (assigned[i] != reservation.getRoom()) {
+                moves++;
+            }
+        }
+
+        if (moves > maxMoves) {
+            return -1;
+        }
+
+        // Every stay is moved under one lock, which releases all of them first so stays can swap rooms
+        ArrayList<Reservation> moved = new ArrayList<Reservation>(moves);
+        Room[] destinations = new Room[moves];
+        for (int i = 0; i < reservations.size(); i++) {
+            if (assigned[i] != reservations.get(i).getRoom()) {
+                destinations[moved.size()] = assigned[i];
+                moved.add(reservations.get(i));
+            }
+        }
+        lowinfo.moveReservations(moved, destinations);
+        return moves;
+    }
+
+    /**
+     * Finds another room for each conflicting reservation so the target room becomes free for the stay.
+     *
+     * @param rooms The rooms of the type.
+     * @param target The index of the room to free.
+     * @param stay The nights to free in the target room.
+     * @param conflicts The reservations of the target room that overlap the stay.
+     * @return The destination of each conflicting reservation, or null if one of them does not fit anywhere.
+     */
+    private Room[] planMoves(ArrayList<Room> rooms, int target, int stay, ArrayList<Reservation> conflicts) {
+        int[] masks = new int[rooms.size()];
+        for (int r = 0; r < rooms.size(); r++) {
+            masks[r] = rooms.get(r).getBookedMask();
+        }
+        masks[target] |= stay; // Keep the opened nights free of moved stays
+
+        Room[] destinations = new Room[conflicts.size()];
+        for (int i = 0; i < conflicts.size(); i++) {
+            Reservation reservation = conflicts.get(i);
+            int nights = nightsOf(reservation);
+
+            int best = -1;
+            int bestWaste = Integer.MAX_VALUE;
+            for (int r = 0; r < rooms.size(); r++) {
+                if (r == target || (masks[r] & nights) != 0) {
+                    continue;
+                }
+                int waste = BestFitAssignment.freeNightsAround(masks[r], reservation.getCheckInDate(),
+                        reservation.getCheckOutDate());
+                if (waste < bestWaste) {
+                    best = r;
+                    bestWaste = waste;
+                }
+            }
+            if (best < 0) {
+                return null;
+            }
+
+            masks[best] |= nights;
+            destinations[i] = rooms.get(best);
+        }
+        return destinations;
+    }
+
+    /**
+     * Collects the rooms of a type.
+     *
+     * @param roomType The room type.
+     * @return The rooms of the type in room order.
+     */
+    private ArrayList<Room> roomsOfType(int roomType) {
+        return new ArrayList<Room>(lowinfo.getRoomsOfType(roomType));
+    }
+
+    /**
+     * Groups the reservations of the given rooms by room.
+     *
+     * @param rooms The rooms of a type.
+     * @return For each room, in the same order, the list of its reservations.
+     */
+    private ArrayList<ArrayList<Reservation>> reservationsByRoom(ArrayList<Room> rooms) {
+        HashMap<Room, Integer> indexes = new HashMap<Room, Integer>();
+        ArrayList<ArrayList<Reservation>> reservationsByRoom = new ArrayList<ArrayList<Reservation>>();
+        for (int r = 0; r < rooms.size(); r++) {
+            indexes.put(rooms.get(r), r);
+            reservationsByRoom.add(new ArrayList<Reservation>());
+        }
+
+        for (Reservation reservation : lowinfo.getReservations()) {
+            Integer index = indexes.get(reservation.getRoom());
+            if (index != null) {
+                reservationsByRoom.get(index).add(reservation);
+            }
+        }
+        return reservationsByRoom;
+    }
+
+    /**
+     * Computes the nights of each room that are blocked without a reservation and cannot be moved.
+     *
+     * @param rooms The rooms of a type.
+     * @param reservationsByRoom The reservations of each room.
+     * @return For each room, the mask of its booked nights not covered by a reservation.
+     */
+    private int[] fixedMasks(ArrayList<Room> rooms, ArrayList<ArrayList<Reservation>> reservationsByRoom) {
+        int[] masks = new int[rooms.size()];
+        for (int r = 0; r < rooms.size(); r++) {
+            int reserved = 0;
+            for (Reservation reservation : reservationsByRoom.get(r)) {
+                reserved |= nightsOf(reservation);
+            }
+            masks[r] = rooms.get(r).getBookedMask() & ~reserved;
+        }
+        return masks;
+    }
+
+    /**
+     * Builds the mask of the nights of a reservation.
+     *
+     * @param reservation The reservation.
+     * @return A mask with bit (day - 1) set for every night of the reservation.
+     */
+    private static int nightsOf(Reservation reservation) {
+        return Room.nightMask(reservation.getCheckInDate(), reservation.getCheckOutDate());
+    }
+}
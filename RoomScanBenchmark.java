@@ -0,0 +1,151 @@
+import java.util.Random;
+
+
+/**
+ * The RoomScanBenchmark class measures how much faster RoomStore counts and finds free rooms with
+ * its day and type bitsets than with a sweep that compares the type and booked days of one room
+ * at a time. Run it with "java RoomScanBenchmark"; it prints the time per scan of both for stores
+ * of thousands of rooms, on the heap and off it, and exits with status 1 if the two disagree.
+ *
+ * About a quarter of the nights of every room are booked, and each stay is one to three nights.
+ */
+public class RoomScanBenchmark {
+
+    private static final int[] ROOM_COUNTS = {1000, 5000, 10000};
+    private static final int STAYS = 64; // Distinct stays cycled through, so no result is the same each time
+    private static final int WARMUP_ROUNDS = 5; // Rounds run before timing, so both scans are compiled
+    private static final long SCANNED_ROOMS = 20000000; // Rooms scanned per timed scan method
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Not used.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(43);
+        for (boolean offHeap : new boolean[] {false, true}) {
+            for (int rooms : ROOM_COUNTS) {
+                RoomStore store = createStore(rooms, offHeap, random);
+                int[] stays = new int[STAYS];
+                for (int i = 0; i < STAYS; i++) {
+                    int checkIn = 1 + random.nextInt(28);
+                    stays[i] = Room.nightMask(checkIn, checkIn + 1 + random.nextInt(3));
+                }
+                int reps = (int) Math.max(100, SCANNED_ROOMS / rooms);
+
+                for (int i = 0; i < STAYS * 3; i++) {
+                    int type = 1 + i % 3;
+                    int stay = stays[i % STAYS];
+                    if (store.countFree(type, stay) != sweepCount(store, type, stay)
+                            || store.findFree(type, stay) != sweepFind(store, type, stay)) {
+                        System.out.println("FAILED: the bitset scan and the sweep disagree");
+                        System.exit(1);
+                    }
+                }
+
+                long sink = 0;
+                for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                    sink += timeSweep(store, stays, reps) + timeBitsets(store, stays, reps);
+                }
+                long sweep = timeSweep(store, stays, reps);
+                long bitsets = timeBitsets(store, stays, reps);
+                sink += sweep + bitsets;
+
+                System.out.printf("%s, %d rooms: sweep %.0f ns, bitsets %.0f ns per count (%.1fx faster)%n",
+                        offHeap ? "off heap" : "on heap", rooms, sweep / (double) reps, bitsets / (double) reps,
+                        sweep / (double) bitsets);
+                if (sink == 42) {
+                    System.out.println(); // Keeps the results of the scans from being optimised away
+                }
+                store.close();
+            }
+        }
+    }
+
+    /**
+     * Creates a store of rooms of every type with random booked nights.
+     *
+     * @param rooms The number of rooms.
+     * @param offHeap Whether the store keeps its masks, prices and bitsets off the heap.
+     * @param random The source of the booked nights.
+     * @return The store.
+     */
+    private static RoomStore createStore(int rooms, boolean offHeap, Random random) {
+        RoomStore store = new RoomStore(rooms);
+        store.setOffHeap(offHeap);
+        for (int i = 0; i < rooms; i++) {
+            int slot = store.addValues(i + 1, 1 + i % 3, 129900);
+            store.setBookedMask(slot, random.nextInt() & random.nextInt() & Room.ALL_DAYS);
+        }
+        return store;
+    }
+
+    /**
+     * Times counting the free rooms with the bitsets of the store.
+     *
+     * @param store The store.
+     * @param stays The stays to count free rooms for, as night masks.
+     * @param reps The number of counts.
+     * @return The time taken, in nanoseconds, plus the parity of the counts so the work is not dropped.
+     */
+    private static long timeBitsets(RoomStore store, int[] stays, int reps) {
+        int free = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < reps; i++) {
+            free += store.countFree(1 + i % 3, stays[i % STAYS]);
+        }
+        return System.nanoTime() - start + (free & 1);
+    }
+
+    /**
+     * Times counting the free rooms with a sweep over every room.
+     *
+     * @param store The store.
+     * @param stays The stays to count free rooms for, as night masks.
+     * @param reps The number of counts.
+     * @return The time taken, in nanoseconds, plus the parity of the counts so the work is not dropped.
+     */
+    private static long timeSweep(RoomStore store, int[] stays, int reps) {
+        int free = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < reps; i++) {
+            free += sweepCount(store, 1 + i % 3, stays[i % STAYS]);
+        }
+        return System.nanoTime() - start + (free & 1);
+    }
+
+    /**
+     * Counts the free rooms of a type by comparing every room in turn.
+     *
+     * @param store The store, which has no holes.
+     * @param type The room type.
+     * @param stay The nights of the stay, as a night mask.
+     * @return The number of rooms of the type free on every night of the stay.
+     */
+    private static int sweepCount(RoomStore store, int type, int stay) {
+        int free = 0;
+        for (int slot = 0; slot < store.size(); slot++) {
+            if (store.getType(slot) == type && (store.getBookedMask(slot) & stay) == 0) {
+                free++;
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Finds the first free room of a type by comparing every room in turn.
+     *
+     * @param store The store, which has no holes.
+     * @param type The room type.
+     * @param stay The nights of the stay, as a night mask.
+     * @return The slot of the first room of the type free on every night of the stay, or -1 if none is.
+     */
+    private static int sweepFind(RoomStore store, int type, int stay) {
+        for (int slot = 0; slot < store.size(); slot++) {
+            if (store.getType(slot) == type && (store.getBookedMask(slot) & stay) == 0) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * The RoomSnapshot class is an immutable copy of a room as it was when a HotelSnapshot was published.
+ * It can be read by any thread while the room itself keeps being booked.
+ */
+public final class RoomSnapshot {
+    private final int number;
+    private final String customName; // Only set when the name is not "Room " followed by a number
+    private final int roomType;
+    private final long price; // In cents
+    private final int bookedMask; // Bit (day - 1) is set when the room is booked on that day
+
+    /**
+     * Constructs a RoomSnapshot with the specified values.
+     *
+     * @param number The room number used in the room name.
+     * @param customName The name of the room if it is not "Room " followed by the number, otherwise null.
+     * @param roomType The type of the room.
+     * @param price The price of the room per night, in cents.
+     * @param bookedMask The booked days of the room.
+     */
+    RoomSnapshot(int number, String customName, int roomType, long price, int bookedMask) {
+        this.number = number;
+        this.customName = customName;
+        this.roomType = roomType;
+        this.price = price;
+        this.bookedMask = bookedMask;
+    }
+
+    /**
+     * Copies the room in a slot of a store.
+     *
+     * @param store The store holding the room.
+     * @param slot The slot of the room.
+     * @return The snapshot of the room.
+     */
+    static RoomSnapshot of(RoomStore store, int slot) {
+        return new RoomSnapshot(store.getNumber(slot), store.getCustomName(slot), store.getType(slot),
+                store.getPrice(slot), store.getBookedMask(slot));
+    }
+
+    /**
+     * Returns the name of the room.
+     *
+     * @return The room's name.
+     */
+    public String getRoomName() {
+        return customName != null ? customName : "Room " + number;
+    }
+
+    /**
+     * Returns the type of the room.
+     *
+     * @return The room type.
+     */
+    public int getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Returns the price of the room per night, for display.
+     *
+     * @return The room's price.
+     */
+    public double getPrice() {
+        return Money.toAmount(price);
+    }
+
+    /**
+     * Returns the price of the room per night in cents.
+     *
+     * @return The room's price in cents.
+     */
+    public long getPriceCents() {
+        return price;
+    }
+
+    /**
+     * Returns the days on which the room was booked.
+     *
+     * @return A mask with bit (day - 1) set for every booked day.
+     */
+    public int getBookedMask() {
+        return bookedMask;
+    }
+
+    /**
+     * Returns the availability of the room for a specific day.
+     *
+     * @param day The day of the month (1-31).
+     * @return True if the room was available on the specified day; false otherwise.
+     */
+    public boolean getAvailabilityDay(int day) {
+        return (bookedMask & (1 << (day - 1))) == 0;
+    }
+}
@@ -0,0 +1,949 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+
+/**
+ * The RoomStore class keeps the rooms of a hotel as parallel primitive arrays (struct of arrays):
+ * one array each for the room numbers, types, prices and booked-day masks, indexed by slot.
+ * Room objects are thin handles onto a slot, and room names are built only when asked for,
+ * so a room costs a few bytes and scanning every room for availability is a linear sweep
+ * over contiguous arrays. Slots follow the room order of the hotel.
+ *
+ * Rooms can be added as values only; their Room handle is then created the first time the room
+ * is asked for, e.g. when it is booked. A generated hotel therefore costs a few array writes per room.
+ *
+ * Removing a room leaves a hole in its slot instead of moving the later rooms, so slots are stable
+ * ids; holes are squeezed out once they outnumber the rooms. A Fenwick tree over the slots counts
+ * the rooms before each slot, which finds the room at a position in the hotel in O(log n).
+ *
+ * The same data is also kept bit-sliced: for every day a bitset of the booked slots, and for
+ * every type a bitset and a list of its slots. Counting or finding free rooms then handles
+ * 64 rooms per bitwise operation and Long.bitCount, instead of one room per comparison.
+ *
+ * The masks, prices and day bitsets can be moved off the heap into an OffHeapInventory for
+ * hotels with very many rooms. The store must then be closed when it is no longer used, which lets
+ * the garbage collector return the direct memory to the system.
+ *
+ * The store records which rooms changed since the last HotelSnapshot, so publishing the next
+ * snapshot copies only those rooms.
+ */
+public class RoomStore {
+
+    // Handles created on demand may be read by other threads, so they are published with release/acquire
+    private static final VarHandle HANDLES = MethodHandles.arrayElementVarHandle(Room[].class);
+
+    private int[] numbers; // Room number used in the room name
+    private byte[] types; // 0 for the slot of a removed room
+    private long[] prices; // Price per night in cents
+    private int[] bookedMasks; // Bit (day - 1) is set when the room is booked on that day
+    private Room[] handles; // Null until the room is first asked for, and for removed rooms
+    private int size; // Rooms in the store
+    private int end; // Slots in use, including holes
+    private int[] liveTree; // Fenwick tree (1-based) of the number of rooms in each slot
+    private long[][] bookedSlots; // Per day (index day - 1), bit slot is set when the slot is booked
+    private long[][] typeSlots; // Per type, bit slot is set for the slots of the type; null if none
+    private int[][] typeRooms; // Per type, the slots of its rooms in room order; null if none
+    private int[] typeSizes; // Per type, the number of rooms
+    private final boolean detached; // Holds one room outside any hotel, without bitsets, type lists or snapshots
+    private OffHeapInventory offHeap; // Replaces prices, bookedMasks and bookedSlots when not null
+    private long[] changedSlots; // Bit slot is set when the room in the slot changed since the last snapshot
+    private int[] changedList; // The slots set in changedSlots, in the order they changed
+    private int changedCount;
+    private boolean layoutChanged; // Rooms moved to other slots since the last snapshot, so every room is copied
+
+    /**
+     * Constructs an empty RoomStore.
+     *
+     * @param capacity The number of rooms the store can hold before it grows.
+     */
+    public RoomStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        this.numbers = new int[capacity];
+        this.types = new byte[capacity];
+        this.prices = new long[capacity];
+        this.bookedMasks = new int[capacity];
+        this.handles = new Room[capacity];
+        this.liveTree = new int[capacity + 1];
+        this.bookedSlots = new long[31][];
+        for (int day = 0; day < 31; day++) {
+            bookedSlots[day] = new long[words(capacity)];
+        }
+        this.typeSlots = new long[4][];
+        this.typeRooms = new int[4][];
+        this.typeSizes = new int[4];
+        this.detached = false;
+    }
+
+    /**
+     * Constructs a store holding a single room that belongs to no hotel, such as a new Room or a
+     * removed one. Nothing scans or snapshots such a store, so it keeps only the values of its room.
+     *
+     * @param room The handle of the room.
+     * @param number The room number used in the room name.
+     * @param type The room type.
+     * @param price The price of the room per night, in cents.
+     * @param bookedMask The booked days of the room.
+     */
+    private RoomStore(Room room, int number, int type, long price, int bookedMask) {
+        this.numbers = new int[] {number};
+        this.types = new byte[] {(byte) type};
+        this.prices = new long[] {price};
+        this.bookedMasks = new int[] {bookedMask};
+        this.handles = new Room[] {room};
+        this.size = 1;
+        this.end = 1;
+        this.detached = true;
+        room.moveTo(this, 0);
+    }
+
+    /**
+     * Makes a Room a handle onto a store of its own, which holds its values while it belongs to no hotel.
+     *
+     * @param room The handle of the room.
+     * @param number The room number used in the room name.
+     * @param type The room type.
+     * @param price The price of the room per night, in cents.
+     * @param bookedMask The booked days of the room.
+     */
+    static void detach(Room room, int number, int type, long price, int bookedMask) {
+        new RoomStore(room, number, type, price, bookedMask);
+    }
+
+    /**
+     * Returns the number of rooms in the store.
+     *
+     * @return The number of rooms.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends a room to the store and makes the Room a handle onto its new slot.
+     * The room's number, price and booked days are copied from the store it was in.
+     *
+     * @param room The room to add.
+     * @return The slot of the room.
+     */
+    public int add(Room room) {
+        RoomStore previous = room.getStore();
+        int previousSlot = room.getSlot();
+        return add(room, previous.getNumber(previousSlot), room.getRoomType(), previous.getPrice(previousSlot),
+                previous.getBookedMask(previousSlot));
+    }
+
+    /**
+     * Appends a room with the given values to the store and makes the Room a handle onto its new slot.
+     *
+     * @param room The handle of the room.
+     * @param number The room number used in the room name.
+     * @param type The room type (1-127).
+     * @param price The price of the room per night, in cents.
+     * @param bookedMask The booked days of the room.
+     * @return The slot of the room.
+     */
+    int add(Room room, int number, int type, long price, int bookedMask) {
+        int slot = addValues(number, type, price);
+        setBookedMask(slot, bookedMask); // A free slot always has an empty mask
+        handles[slot] = room;
+        room.moveTo(this, slot);
+        return slot;
+    }
+
+    /**
+     * Appends a room with no booked days without creating its Room handle, which is created
+     * the first time the room is asked for.
+     *
+     * @param number The room number used in the room name.
+     * @param type The room type (1-3 for Standard, Deluxe and Executive rooms).
+     * @param price The price of the room per night, in cents.
+     * @return The slot of the room.
+     */
+    public int addValues(int number, int type, long price) {
+        if (end == handles.length) {
+            if (end - size > end / 2) {
+                compact();
+            } else {
+                grow(end * 2);
+            }
+        }
+
+        int slot = end++;
+        size++;
+        numbers[slot] = number;
+        types[slot] = (byte) type;
+        putPrice(slot, price);
+        setTypeBit(slot, true);
+        addToTypeList(type, slot);
+        addToLiveTree(slot, 1);
+        markChanged(slot);
+        return slot;
+    }
+
+    /**
+     * Removes the room in a slot, leaving a hole so no other room moves. The removed Room keeps
+     * its values in a single-room store of its own, so it can still be read.
+     *
+     * @param slot The slot of the room to remove.
+     * @return The removed Room.
+     */
+    public Room remove(int slot) {
+        Room room = getRoom(slot);
+        detach(room, numbers[slot], types[slot], getPrice(slot), getBookedMask(slot));
+
+        setBookedMask(slot, 0);
+        setPrice(slot, 0);
+        setTypeBit(slot, false);
+        removeFromTypeList(types[slot], slot);
+        numbers[slot] = 0;
+        types[slot] = 0;
+        handles[slot] = null;
+        addToLiveTree(slot, -1);
+        size--;
+        markChanged(slot);
+
+        while (end > 0 && types[end - 1] == 0) {
+            end--; // Holes at the end are free slots again
+        }
+        if (end - size > Math.max(64, size)) {
+            compact();
+        }
+        return room;
+    }
+
+    /**
+     * Returns the room at a position in the hotel, counting rooms in room order and skipping holes.
+     *
+     * @param position The position of the room (0 to size - 1).
+     * @return The Room at the position.
+     */
+    public Room getRoomAt(int position) {
+        return getRoom(slotAt(position));
+    }
+
+    /**
+     * Returns the slot of the room at a position in the hotel.
+     *
+     * @param position The position of the room (0 to size - 1).
+     * @return The slot of the room.
+     */
+    public int slotAt(int position) {
+        if (end == size) {
+            return position; // No holes, positions are slots
+        }
+
+        int slot = 0; // Fenwick descent for the smallest slot with position + 1 rooms up to it
+        int remaining = position + 1;
+        for (int step = Integer.highestOneBit(liveTree.length - 1); step > 0; step >>= 1) {
+            int next = slot + step;
+            if (next < liveTree.length && liveTree[next] < remaining) {
+                slot = next;
+                remaining -= liveTree[next];
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the position in the hotel of the room in a slot.
+     *
+     * @param slot The slot of the room.
+     * @return The number of rooms in the slots before it.
+     */
+    public int positionOf(int slot) {
+        int position = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            position += liveTree[i];
+        }
+        return position;
+    }
+
+    /**
+     * Returns the number of rooms of a type.
+     *
+     * @param type The room type.
+     * @return The number of rooms of the type.
+     */
+    public int countOfType(int type) {
+        return type >= 0 && type < typeSizes.length ? typeSizes[type] : 0;
+    }
+
+    /**
+     * Returns a room of a type by its position among the rooms of the type.
+     *
+     * @param type The room type.
+     * @param index The position of the room among the rooms of the type, in room order.
+     * @return The Room at the position.
+     */
+    public Room getRoomOfType(int type, int index) {
+        return getRoom(typeRooms[type][index]);
+    }
+
+    /**
+     * Returns the slot of a room of a type by its position among the rooms of the type.
+     *
+     * @param type The room type.
+     * @param index The position of the room among the rooms of the type, in room order.
+     * @return The slot of the room.
+     */
+    public int slotOfType(int type, int index) {
+        return typeRooms[type][index];
+    }
+
+    /**
+     * Sets the price per night of every room of a type, without creating their Room handles.
+     *
+     * @param type The room type.
+     * @param price The new price in cents.
+     */
+    public void setPriceOfType(int type, long price) {
+        for (int i = 0, count = countOfType(type); i < count; i++) {
+            setPrice(typeRooms[type][i], price);
+        }
+    }
+
+    /**
+     * Moves the arrays to a larger capacity.
+     *
+     * @param capacity The new number of slots.
+     */
+    private void grow(int capacity) {
+        numbers = Arrays.copyOf(numbers, capacity);
+        types = Arrays.copyOf(types, capacity);
+        handles = Arrays.copyOf(handles, capacity);
+        if (changedSlots != null) {
+            changedSlots = Arrays.copyOf(changedSlots, words(capacity));
+        }
+        if (offHeap != null) {
+            offHeap.grow(capacity);
+        } else {
+            prices = Arrays.copyOf(prices, capacity);
+            bookedMasks = Arrays.copyOf(bookedMasks, capacity);
+            for (int day = 0; day < 31; day++) {
+                bookedSlots[day] = Arrays.copyOf(bookedSlots[day], words(capacity));
+            }
+        }
+        for (int t = 0; t < typeSlots.length; t++) {
+            if (typeSlots[t] != null) {
+                typeSlots[t] = Arrays.copyOf(typeSlots[t], words(capacity));
+            }
+        }
+        liveTree = new int[capacity + 1];
+        rebuildLiveTree();
+    }
+
+    /**
+     * Moves every room down into the holes before it, keeping the room order, so the rooms fill
+     * the first slots again.
+     */
+    private void compact() {
+        int to = 0;
+        for (int slot = 0; slot < end; slot++) {
+            if (types[slot] == 0) {
+                continue;
+            }
+            if (to != slot) {
+                Room room = handles[slot];
+                numbers[to] = numbers[slot];
+                types[to] = types[slot];
+                putPrice(to, getPrice(slot));
+                putBookedMask(to, getBookedMask(slot));
+                handles[to] = room;
+                if (room != null) {
+                    room.moveTo(this, to);
+                }
+            }
+            to++;
+        }
+        for (int slot = to; slot < end; slot++) {
+            numbers[slot] = 0;
+            types[slot] = 0;
+            putPrice(slot, 0);
+            putBookedMask(slot, 0);
+            handles[slot] = null;
+        }
+        end = to;
+        layoutChanged = true; // The recorded slots no longer hold the same rooms
+        rebuildBitsets();
+        rebuildLiveTree();
+    }
+
+    /**
+     * Returns the handle of the room in a slot, creating it if the room was added as values only.
+     *
+     * @param slot The slot of the room.
+     * @return The Room in the slot.
+     */
+    public Room getRoom(int slot) {
+        Room room = (Room) HANDLES.getAcquire(handles, slot);
+        return room != null ? room : materialize(slot);
+    }
+
+    /**
+     * Returns the handle of the room in a slot without creating it.
+     *
+     * @param slot The slot of the room.
+     * @return The Room in the slot, or null if it was not asked for yet or the slot is a hole.
+     */
+    Room peekRoom(int slot) {
+        return (Room) HANDLES.getAcquire(handles, slot);
+    }
+
+    /**
+     * Creates the handle of a room that was added as values only.
+     *
+     * @param slot The slot of the room.
+     * @return The Room in the slot.
+     */
+    private synchronized Room materialize(int slot) {
+        Room room = handles[slot];
+        if (room == null) {
+            switch (types[slot]) {
+                case 2:
+                    room = new DeluxeRoom(this, slot);
+                    break;
+                case 3:
+                    room = new ExecutiveRoom(this, slot);
+                    break;
+                default:
+                    room = new StandardRoom(this, slot);
+                    break;
+            }
+            HANDLES.setRelease(handles, slot, room);
+        }
+        return room;
+    }
+
+    /**
+     * Builds the name of the room in a slot.
+     *
+     * @param slot The slot of the room.
+     * @return The room name, e.g. "Room 12".
+     */
+    public String getName(int slot) {
+        return "Room " + numbers[slot];
+    }
+
+    /**
+     * Returns the number used in the name of the room in a slot.
+     *
+     * @param slot The slot of the room.
+     * @return The room number.
+     */
+    public int getNumber(int slot) {
+        return numbers[slot];
+    }
+
+    /**
+     * Returns the name of the room in a slot if it is not built from the room number.
+     *
+     * @param slot The slot of the room.
+     * @return The custom name of the room, or null if its name is "Room " followed by its number.
+     */
+    String getCustomName(int slot) {
+        Room room = handles[slot]; // Rooms added as values only have no custom name
+        return room != null ? room.getCustomName() : null;
+    }
+
+    /**
+     * Returns the type of the room in a slot.
+     *
+     * @param slot The slot of the room.
+     * @return The room type.
+     */
+    public int getType(int slot) {
+        return types[slot];
+    }
+
+    /**
+     * Sets the type of the room in a slot.
+     *
+     * @param slot The slot of the room.
+     * @param type The new room type (1-127).
+     */
+    public void setType(int slot, int type) {
+        if (detached) {
+            types[slot] = (byte) type;
+            return;
+        }
+        setTypeBit(slot, false);
+        removeFromTypeList(types[slot], slot);
+        types[slot] = (byte) type;
+        setTypeBit(slot, true);
+        addToTypeList(type, slot);
+        markChanged(slot);
+    }
+
+    /**
+     * Returns the price per night of the room in a slot.
+     *
+     * @param slot The slot of the room.
+     * @return The price in cents.
+     */
+    public long getPrice(int slot) {
+        return offHeap != null ? offHeap.getPrice(slot) : prices[slot];
+    }
+
+    /**
+     * Sets the price per night of the room in a slot.
+     *
+     * @param slot The slot of the room.
+     * @param price The new price in cents.
+     */
+    public void setPrice(int slot, long price) {
+        putPrice(slot, price);
+        markChanged(slot);
+    }
+
+    /**
+     * Stores the price per night of a slot without recording a change.
+     *
+     * @param slot The slot.
+     * @param price The price in cents.
+     */
+    private void putPrice(int slot, long price) {
+        if (offHeap != null) {
+            offHeap.setPrice(slot, price);
+        } else {
+            prices[slot] = price;
+        }
+    }
+
+    /**
+     * Returns the booked days of the room in a slot.
+     *
+     * @param slot The slot of the room.
+     * @return A mask with bit (day - 1) set for every booked day.
+     */
+    public int getBookedMask(int slot) {
+        return offHeap != null ? offHeap.getBookedMask(slot) : bookedMasks[slot];
+    }
+
+    /**
+     * Sets the booked days of the room in a slot.
+     *
+     * @param slot The slot of the room.
+     * @param bookedMask A mask with bit (day - 1) set for every booked day.
+     */
+    public void setBookedMask(int slot, int bookedMask) {
+        if (detached) {
+            bookedMasks[slot] = bookedMask;
+            return;
+        }
+        long bit = 1L << slot;
+        int word = slot >>> 6;
+        for (int changed = (getBookedMask(slot) ^ bookedMask) & Room.ALL_DAYS; changed != 0; changed &= changed - 1) {
+            int day = Integer.numberOfTrailingZeros(changed);
+            setBookedWord(day, word, getBookedWord(day, word) ^ bit);
+        }
+        putBookedMask(slot, bookedMask);
+        markChanged(slot);
+    }
+
+    /**
+     * Stores the booked days of a slot without updating the day bitsets.
+     *
+     * @param slot The slot.
+     * @param bookedMask A mask with bit (day - 1) set for every booked day.
+     */
+    private void putBookedMask(int slot, int bookedMask) {
+        if (offHeap != null) {
+            offHeap.setBookedMask(slot, bookedMask);
+        } else {
+            bookedMasks[slot] = bookedMask;
+        }
+    }
+
+    /**
+     * Records that the room in a slot changed since the last snapshot. Once more rooms changed
+     * than are worth copying one by one, the next snapshot copies every room instead.
+     *
+     * @param slot The slot of the room.
+     */
+    private void markChanged(int slot) {
+        if (detached || layoutChanged) {
+            return; // No snapshot of the store is taken, or every room is copied anyway
+        }
+        if (changedSlots == null) {
+            changedSlots = new long[words(handles.length)];
+            changedList = new int[4];
+        }
+        long bit = 1L << slot;
+        if ((changedSlots[slot >>> 6] & bit) != 0) {
+            return;
+        }
+        if (changedCount >= Math.max(64, size / 8)) {
+            layoutChanged = true;
+            return;
+        }
+        if (changedCount == changedList.length) {
+            changedList = Arrays.copyOf(changedList, changedCount * 2);
+        }
+        changedSlots[slot >>> 6] |= bit;
+        changedList[changedCount++] = slot;
+    }
+
+    /**
+     * Checks whether every room must be copied into the next snapshot, because rooms moved to other
+     * slots or changed in large numbers since the last one.
+     *
+     * @return True if the recorded slots are not enough to update the last snapshot; false otherwise.
+     */
+    boolean isLayoutChanged() {
+        return layoutChanged;
+    }
+
+    /**
+     * Returns the number of slots in use, including the holes of removed rooms.
+     *
+     * @return The number of slots in use.
+     */
+    int getSlotCount() {
+        return end;
+    }
+
+    /**
+     * Returns the number of rooms recorded as changed since the last snapshot.
+     *
+     * @return The number of changed slots.
+     */
+    int getChangedCount() {
+        return changedCount;
+    }
+
+    /**
+     * Returns a slot recorded as changed since the last snapshot.
+     *
+     * @param index The index of the record (0 to getChangedCount - 1).
+     * @return The changed slot.
+     */
+    int getChangedSlot(int index) {
+        return changedList[index];
+    }
+
+    /**
+     * Forgets the recorded changes, once a snapshot with them has been published.
+     */
+    void clearChanges() {
+        for (int i = 0; i < changedCount; i++) {
+            changedSlots[changedList[i] >>> 6] = 0; // Whole words, every set bit is in the list
+        }
+        changedCount = 0;
+        layoutChanged = false;
+    }
+
+    /**
+     * Checks whether the masks, prices and day bitsets are kept off the heap.
+     *
+     * @return True if the store uses an OffHeapInventory; false otherwise.
+     */
+    public boolean isOffHeap() {
+        return offHeap != null;
+    }
+
+    /**
+     * Moves the masks, prices and day bitsets off the heap into an OffHeapInventory, or back into
+     * Java arrays, keeping every value.
+     *
+     * @param useOffHeap True to keep the columns off the heap, false to keep them in arrays.
+     */
+    public void setOffHeap(boolean useOffHeap) {
+        if (useOffHeap == (offHeap != null)) {
+            return;
+        }
+
+        int capacity = handles.length;
+        if (useOffHeap) {
+            OffHeapInventory inventory = new OffHeapInventory(capacity);
+            for (int slot = 0; slot < end; slot++) {
+                inventory.setPrice(slot, prices[slot]);
+                inventory.setBookedMask(slot, bookedMasks[slot]);
+            }
+            for (int day = 0; day < 31; day++) {
+                for (int word = 0; word < words(capacity); word++) {
+                    inventory.setBookedWord(day, word, bookedSlots[day][word]);
+                }
+                bookedSlots[day] = null;
+            }
+            prices = null;
+            bookedMasks = null;
+            offHeap = inventory;
+        } else {
+            prices = new long[capacity];
+            bookedMasks = new int[capacity];
+            for (int slot = 0; slot < end; slot++) {
+                prices[slot] = offHeap.getPrice(slot);
+                bookedMasks[slot] = offHeap.getBookedMask(slot);
+            }
+            for (int day = 0; day < 31; day++) {
+                bookedSlots[day] = new long[words(capacity)];
+                for (int word = 0; word < words(capacity); word++) {
+                    bookedSlots[day][word] = offHeap.getBookedWord(day, word);
+                }
+            }
+            offHeap.close();
+            offHeap = null;
+        }
+    }
+
+    /**
+     * Drops the off-heap memory of the store, if it has any. The store must not be used afterwards.
+     * The direct memory is returned to the system when the garbage collector collects it, not right away.
+     */
+    public void close() {
+        if (offHeap != null) {
+            offHeap.close();
+        }
+    }
+
+    /**
+     * Counts the rooms that are free on a day.
+     *
+     * @param day The day of the month (1-31).
+     * @return The number of rooms not booked on the day.
+     */
+    public int countFreeOn(int day) {
+        int bookedRooms = 0;
+        for (int word = 0, words = words(end); word < words; word++) {
+            bookedRooms += Long.bitCount(getBookedWord(day - 1, word));
+        }
+        return size - bookedRooms;
+    }
+
+    /**
+     * Counts the rooms of a type that are free for every night of a stay.
+     *
+     * @param type The room type.
+     * @param stay The nights of the stay, as built by Room.nightMask.
+     * @return The number of free rooms of the type.
+     */
+    public int countFree(int type, int stay) {
+        long[] ofType = slotsOfType(type);
+        if (ofType == null) {
+            return 0;
+        }
+
+        int free = 0;
+        for (int word = 0, words = words(end); word < words; word++) {
+            free += Long.bitCount(freeSlots(ofType, stay, word));
+        }
+        return free;
+    }
+
+    /**
+     * Finds the first room of a type that is free for every night of a stay.
+     *
+     * @param type The room type.
+     * @param stay The nights of the stay, as built by Room.nightMask.
+     * @return The slot of the first free room of the type, or -1 if there is none.
+     */
+    public int findFree(int type, int stay) {
+        long[] ofType = slotsOfType(type);
+        if (ofType == null) {
+            return -1;
+        }
+
+        for (int word = 0, words = words(end); word < words; word++) {
+            long free = freeSlots(ofType, stay, word);
+            if (free != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(free);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Computes which of 64 slots hold a room of a type that is free for every night of a stay.
+     *
+     * @param ofType The slots of the type.
+     * @param stay The nights of the stay.
+     * @param word The index of the 64 slots.
+     * @return A word with the bit of every free slot of the type set.
+     */
+    private long freeSlots(long[] ofType, int stay, int word) {
+        long free = ofType[word];
+        for (int nights = stay; nights != 0 && free != 0; nights &= nights - 1) {
+            free &= ~getBookedWord(Integer.numberOfTrailingZeros(nights), word);
+        }
+        return free;
+    }
+
+    /**
+     * Returns 64 slots of the bitset of booked slots of a day.
+     *
+     * @param day The day index (day of the month - 1).
+     * @param word The index of the 64 slots.
+     * @return The word, with bit slot set when the slot is booked on the day.
+     */
+    private long getBookedWord(int day, int word) {
+        return offHeap != null ? offHeap.getBookedWord(day, word) : bookedSlots[day][word];
+    }
+
+    /**
+     * Sets 64 slots of the bitset of booked slots of a day.
+     *
+     * @param day The day index (day of the month - 1).
+     * @param word The index of the 64 slots.
+     * @param bits The word, with bit slot set when the slot is booked on the day.
+     */
+    private void setBookedWord(int day, int word, long bits) {
+        if (offHeap != null) {
+            offHeap.setBookedWord(day, word, bits);
+        } else {
+            bookedSlots[day][word] = bits;
+        }
+    }
+
+    /**
+     * Returns the bitset of the slots of a type.
+     *
+     * @param type The room type.
+     * @return The bitset, or null if the store has never held a room of the type.
+     */
+    private long[] slotsOfType(int type) {
+        return type >= 0 && type < typeSlots.length ? typeSlots[type] : null;
+    }
+
+    /**
+     * Sets or clears the bit of a slot in the bitset of its type.
+     *
+     * @param slot The slot.
+     * @param set True to set the bit, false to clear it.
+     */
+    private void setTypeBit(int slot, boolean set) {
+        int type = types[slot] & 0x7F;
+        ensureType(type);
+        if (typeSlots[type] == null) {
+            typeSlots[type] = new long[words(handles.length)];
+        }
+        if (set) {
+            typeSlots[type][slot >>> 6] |= 1L << slot;
+        } else {
+            typeSlots[type][slot >>> 6] &= ~(1L << slot);
+        }
+    }
+
+    /**
+     * Inserts a slot into the list of its type, keeping the list in slot order.
+     *
+     * @param type The room type.
+     * @param slot The slot.
+     */
+    private void addToTypeList(int type, int slot) {
+        ensureType(type);
+        int[] rooms = typeRooms[type];
+        int count = typeSizes[type];
+        if (rooms == null) {
+            rooms = new int[4];
+        } else if (count == rooms.length) {
+            rooms = Arrays.copyOf(rooms, count * 2);
+        }
+        typeRooms[type] = rooms;
+
+        int index = count; // Slots are mostly added at the end
+        if (index > 0 && rooms[index - 1] > slot) {
+            index = -Arrays.binarySearch(rooms, 0, count, slot) - 1;
+            System.arraycopy(rooms, index, rooms, index + 1, count - index);
+        }
+        rooms[index] = slot;
+        typeSizes[type] = count + 1;
+    }
+
+    /**
+     * Removes a slot from the list of its type.
+     *
+     * @param type The room type.
+     * @param slot The slot.
+     */
+    private void removeFromTypeList(int type, int slot) {
+        int[] rooms = typeRooms[type];
+        int count = typeSizes[type];
+        int index = Arrays.binarySearch(rooms, 0, count, slot);
+        System.arraycopy(rooms, index + 1, rooms, index, count - index - 1);
+        typeSizes[type] = count - 1;
+    }
+
+    /**
+     * Makes room in the per-type tables for a type.
+     *
+     * @param type The room type (0-127).
+     */
+    private void ensureType(int type) {
+        if (type >= typeSizes.length) {
+            int length = Math.max(type + 1, typeSizes.length * 2);
+            typeSlots = Arrays.copyOf(typeSlots, length);
+            typeRooms = Arrays.copyOf(typeRooms, length);
+            typeSizes = Arrays.copyOf(typeSizes, length);
+        }
+    }
+
+    /**
+     * Rebuilds the day and type bitsets and the type lists from the primitive arrays.
+     */
+    private void rebuildBitsets() {
+        if (offHeap != null) {
+            offHeap.clearBookedWords();
+        } else {
+            for (int day = 0; day < 31; day++) {
+                Arrays.fill(bookedSlots[day], 0);
+            }
+        }
+        for (int type = 0; type < typeSlots.length; type++) {
+            if (typeSlots[type] != null) {
+                Arrays.fill(typeSlots[type], 0);
+            }
+            typeSizes[type] = 0;
+        }
+
+        for (int slot = 0; slot < end; slot++) {
+            if (types[slot] == 0) {
+                continue;
+            }
+            setTypeBit(slot, true);
+            addToTypeList(types[slot], slot);
+            for (int booked = getBookedMask(slot) & Room.ALL_DAYS; booked != 0; booked &= booked - 1) {
+                int day = Integer.numberOfTrailingZeros(booked);
+                setBookedWord(day, slot >>> 6, getBookedWord(day, slot >>> 6) | 1L << slot);
+            }
+        }
+    }
+
+    /**
+     * Adds to the number of rooms in a slot in the Fenwick tree.
+     *
+     * @param slot The slot.
+     * @param delta 1 when a room is added to the slot, -1 when it is removed.
+     */
+    private void addToLiveTree(int slot, int delta) {
+        for (int i = slot + 1; i < liveTree.length; i += i & -i) {
+            liveTree[i] += delta;
+        }
+    }
+
+    /**
+     * Rebuilds the Fenwick tree from the types in linear time.
+     */
+    private void rebuildLiveTree() {
+        Arrays.fill(liveTree, 0);
+        for (int i = 1; i < liveTree.length; i++) {
+            if (i <= end && types[i - 1] != 0) {
+                liveTree[i]++;
+            }
+            int parent = i + (i & -i);
+            if (parent < liveTree.length) {
+                liveTree[parent] += liveTree[i];
+            }
+        }
+    }
+
+    /**
+     * Computes the number of 64-bit words needed for a number of slots.
+     *
+     * @param slots The number of slots.
+     * @return The number of words.
+     */
+    private static int words(int slots) {
+        return (slots + 63) >>> 6;
+    }
+}
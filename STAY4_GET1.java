@@ -5,15 +5,17 @@
  */
 public class STAY4_GET1 extends Discount {
 
-  private double priceOnDay;
+  static final int MIN_NIGHTS = 4; // Stays of at least four nights get one night free
+
+  private long priceOnDay; // In cents
 
   /**
    * Constructs a STAY4_GET1 discount with the specified base price and price for one night.
    * 
-   * @param basePrice The total price for the stay before discount is applied.
-   * @param priceOnDay The price of one night.
+   * @param basePrice The total price for the stay before discount is applied, in cents.
+   * @param priceOnDay The price of one night, in cents.
    */
-    public STAY4_GET1(double basePrice, double priceOnDay) {
+    public STAY4_GET1(long basePrice, long priceOnDay) {
       super(basePrice);
       this.priceOnDay = priceOnDay;
     }
@@ -22,11 +24,11 @@ public class STAY4_GET1 extends Discount {
      * Applies the STAY4_GET1 discount to the base price. The discount is calculated as the base price 
      * minus the price for one night (which represents the free night).
      * 
-     * @return The total price after applying the STAY4_GET1 discount.
+     * @return The total price after applying the STAY4_GET1 discount, in cents.
      */
-    public double applyDiscount(){
+    public long applyDiscount(){
 
-      double discountTotal = (basePrice - priceOnDay);
+      long discountTotal = (basePrice - priceOnDay);
       return discountTotal;
 
     }
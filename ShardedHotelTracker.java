@@ -0,0 +1,467 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+
+/**
+ * The ShardedHotelTracker class partitions hotels across independent shards so bookings of
+ * different hotels run in parallel. Each shard is a HotelTracker of its own, changed only by the
+ * writer thread of its BookingPipeline, so shards share no data and take no locks.
+ *
+ * A new hotel is placed in the shard picked by the hash of its name. A directory of hotel names
+ * routes every later command to that shard and keeps names unique across shards; a renamed hotel
+ * stays in its shard. Like HotelTracker, the directory matches names ignoring case, so it is keyed
+ * and hashed by the lower-case name. Changes return a future of the status code of the HotelTracker method.
+ *
+ * Queries over every hotel are scatter-gather: the hotel list and the total earnings are gathered
+ * from the snapshots each shard publishes, without stopping any writer, while a search is sent to
+ * every shard's writer and the results are merged once every shard answered.
+ */
+public class ShardedHotelTracker {
+
+    private final BookingPipeline[] shards;
+    private final ConcurrentHashMap<String, BookingPipeline> directory; // Shard of each hotel by lower-case name
+
+    /**
+     * Constructs a ShardedHotelTracker with one shard per available processor.
+     */
+    public ShardedHotelTracker() {
+        this(Runtime.getRuntime().availableProcessors(), 1024);
+    }
+
+    /**
+     * Constructs a ShardedHotelTracker and starts the writer thread of each shard.
+     *
+     * @param shardCount The number of shards.
+     * @param capacity The number of commands that can wait to be run in each shard.
+     */
+    public ShardedHotelTracker(int shardCount, int capacity) {
+        this.shards = new BookingPipeline[Math.max(1, shardCount)];
+        this.directory = new ConcurrentHashMap<String, BookingPipeline>();
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new BookingPipeline(new HotelTracker(), capacity);
+            shards[i].start("hotel-shard-" + i);
+        }
+    }
+
+    /**
+     * Stops every shard once the commands submitted before have run.
+     */
+    public void close() {
+        for (BookingPipeline shard : shards) {
+            shard.close();
+        }
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the directory key of a hotel name, the same for names that differ only in case.
+     *
+     * @param hotelName The name of the hotel.
+     * @return The name in lower case.
+     */
+    private static String key(String hotelName) {
+        return hotelName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Picks the shard of a new hotel from the hash of its directory key.
+     *
+     * @param key The directory key of the hotel name.
+     * @return The shard for the key.
+     */
+    private BookingPipeline hashShard(String key) {
+        int hash = key.hashCode();
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+
+    /**
+     * Finds the shard holding a hotel.
+     *
+     * @param hotelName The name of the hotel.
+     * @return The shard of the hotel, or the shard for its name if there is no such hotel,
+     *         whose tracker then reports the hotel as not found.
+     */
+    private BookingPipeline shardOf(String hotelName) {
+        String key = key(hotelName);
+        BookingPipeline shard = directory.get(key);
+        return shard != null ? shard : hashShard(key);
+    }
+
+    /**
+     * Creates a hotel in the shard picked by its name, as HotelTracker.createHotel.
+     *
+     * @param hotelName The name of the hotel to be created.
+     * @param numberOfRooms The number of rooms in the hotel.
+     * @return The future status code of createHotel.
+     */
+    public CompletableFuture<Integer> createHotel(String hotelName, int numberOfRooms) {
+        String key = key(hotelName);
+        BookingPipeline shard = hashShard(key);
+        if (directory.putIfAbsent(key, shard) != null) {
+            return CompletableFuture.completedFuture(1); // Hotel already exists, in this or another shard
+        }
+        return shard.createHotel(hotelName, numberOfRooms).whenComplete((status, error) -> {
+            if (error != null || status != 0) {
+                directory.remove(key, shard);
+            }
+        });
+    }
+
+    /**
+     * Removes a hotel, as HotelTracker.removeHotel.
+     *
+     * @param hotelName The name of the hotel to be removed.
+     * @return The future status code of removeHotel.
+     */
+    public CompletableFuture<Integer> removeHotel(String hotelName) {
+        BookingPipeline shard = shardOf(hotelName);
+        return shard.removeHotel(hotelName).whenComplete((status, error) -> {
+            if (error == null && status == 0) {
+                directory.remove(key(hotelName), shard);
+            }
+        });
+    }
+
+    /**
+     * Renames a hotel, as HotelTracker.changeHotelName. The hotel stays in its shard.
+     *
+     * @param oldName The current name of the hotel.
+     * @param newName The new name to be set for the hotel.
+     * @return The future status code of changeHotelName.
+     */
+    public CompletableFuture<Integer> changeHotelName(String oldName, String newName) {
+        String oldKey = key(oldName);
+        String newKey = key(newName);
+        BookingPipeline shard = directory.get(oldKey);
+        if (shard == null) {
+            return CompletableFuture.completedFuture(2); // Hotel with the old name not found
+        }
+        if (directory.putIfAbsent(newKey, shard) != null) {
+            return CompletableFuture.completedFuture(1); // A hotel with the new name already exists
+        }
+        return shard.changeHotelName(oldName, newName).whenComplete((status, error) -> {
+            if (error == null && status == 0) {
+                directory.remove(oldKey, shard);
+            } else {
+                directory.remove(newKey, shard);
+            }
+        });
+    }
+
+    /**
+     * Sets the maximum number of rooms a hotel may have in every shard, as HotelTracker.setMaxRoomsPerHotel.
+     *
+     * @param maxRoomsPerHotel The maximum number of rooms per hotel.
+     * @return The future status code of setMaxRoomsPerHotel, completed once every shard changed.
+     */
+    public CompletableFuture<Integer> setMaxRoomsPerHotel(int maxRoomsPerHotel) {
+        if (maxRoomsPerHotel < 1) {
+            return CompletableFuture.completedFuture(1); // Invalid capacity
+        }
+        CompletableFuture<?>[] changes = new CompletableFuture<?>[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            changes[i] = shards[i].execute(tracker -> tracker.setMaxRoomsPerHotel(maxRoomsPerHotel));
+        }
+        return CompletableFuture.allOf(changes).thenApply(done -> 0);
+    }
+
+    /**
+     * Adds rooms to a hotel, as HotelTracker.addRoom.
+     *
+     * @param hotelName The name of the hotel.
+     * @param newRooms The number of new rooms to be added.
+     * @return The future number of rooms actually added.
+     */
+    public CompletableFuture<Integer> addRoom(String hotelName, int newRooms) {
+        return shardOf(hotelName).addRoom(hotelName, newRooms);
+    }
+
+    /**
+     * Removes a room from a hotel, as HotelTracker.removeRoom.
+     *
+     * @param hotelName The name of the hotel.
+     * @param roomNumber The room number to be removed.
+     * @return The future status code of removeRoom.
+     */
+    public CompletableFuture<Integer> removeRoom(String hotelName, int roomNumber) {
+        return shardOf(hotelName).removeRoom(hotelName, roomNumber);
+    }
+
+    /**
+     * Updates the price of all rooms in a hotel, as HotelTracker.updateRoomPrice.
+     *
+     * @param hotelName The name of the hotel.
+     * @param newPrice The new price to set for all rooms.
+     * @return The future status code of updateRoomPrice.
+     */
+    public CompletableFuture<Integer> updateRoomPrice(String hotelName, double newPrice) {
+        return shardOf(hotelName).updateRoomPrice(hotelName, newPrice);
+    }
+
+    /**
+     * Changes the rate of a day in a hotel, as HotelTracker.changeRates.
+     *
+     * @param hotelName The name of the hotel.
+     * @param day The day for which the rate is to be changed.
+     * @param rate The new rate to set for the specified day.
+     * @return The future status code of changeRates.
+     */
+    public CompletableFuture<Integer> changeRates(String hotelName, int day, int rate) {
+        return shardOf(hotelName).changeRates(hotelName, day, rate);
+    }
+
+    /**
+     * Books a room, as HotelTracker.simulateBooking.
+     *
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to apply.
+     * @return The future status code of simulateBooking.
+     */
+    public CompletableFuture<Integer> simulateBooking(String hotelName, String guestName, int checkInDate,
+            int checkOutDate, int roomType, String discountCode) {
+        return shardOf(hotelName).simulateBooking(hotelName, guestName, checkInDate, checkOutDate, roomType,
+                discountCode);
+    }
+
+    /**
+     * Books a room once per idempotency key, as the idempotent HotelTracker.simulateBooking.
+     * Keys are remembered by the shard of the hotel.
+     *
+     * @param idempotencyKey The key identifying the request, the same for every retry; null to always book.
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to apply.
+     * @return The future status code of simulateBooking for the first request with this key.
+     */
+    public CompletableFuture<Integer> simulateBooking(String idempotencyKey, String hotelName, String guestName,
+            int checkInDate, int checkOutDate, int roomType, String discountCode) {
+        return shardOf(hotelName).simulateBooking(idempotencyKey, hotelName, guestName, checkInDate, checkOutDate,
+                roomType, discountCode);
+    }
+
+    /**
+     * Books several rooms for one guest, as HotelTracker.simulateGroupBooking.
+     *
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param roomTypes The type of each room to book; the array must not be changed afterwards.
+     * @param discountCode The discount code to apply.
+     * @return The future group id, or negated status code, of simulateGroupBooking.
+     */
+    public CompletableFuture<Integer> simulateGroupBooking(String hotelName, String guestName, int checkInDate,
+            int checkOutDate, int[] roomTypes, String discountCode) {
+        return shardOf(hotelName).simulateGroupBooking(hotelName, guestName, checkInDate, checkOutDate, roomTypes,
+                discountCode);
+    }
+
+    /**
+     * Cancels the reservation of a guest, as HotelTracker.removeReservation.
+     *
+     * @param hotelName The name of the hotel where the reservation is made.
+     * @param guestName The name of the guest with the reservation.
+     * @return The future status code of removeReservation.
+     */
+    public CompletableFuture<Integer> removeReservation(String hotelName, String guestName) {
+        return shardOf(hotelName).removeReservation(hotelName, guestName);
+    }
+
+    /**
+     * Adds a request to the waitlist of a hotel, as HotelTracker.joinWaitlist.
+     *
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest making the booking.
+     * @param checkInDate The check-in date for the booking.
+     * @param checkOutDate The check-out date for the booking.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to apply when the request is booked.
+     * @param priority The priority of the request; lower values are served first.
+     * @return The future status code of joinWaitlist.
+     */
+    public CompletableFuture<Integer> joinWaitlist(String hotelName, String guestName, int checkInDate,
+            int checkOutDate, int roomType, String discountCode, int priority) {
+        return shardOf(hotelName).joinWaitlist(hotelName, guestName, checkInDate, checkOutDate, roomType,
+                discountCode, priority);
+    }
+
+    /**
+     * Removes the waiting requests of a guest, as HotelTracker.leaveWaitlist.
+     *
+     * @param hotelName The name of the hotel.
+     * @param guestName The name of the guest.
+     * @return The future number of requests removed, or -1 if the hotel is not found.
+     */
+    public CompletableFuture<Integer> leaveWaitlist(String hotelName, String guestName) {
+        return shardOf(hotelName).leaveWaitlist(hotelName, guestName);
+    }
+
+    /**
+     * Moves reservations to free whole rooms of a type, as HotelTracker.repackRooms.
+     *
+     * @param hotelName The name of the hotel.
+     * @param roomType The type of room to repack.
+     * @param maxMoves The maximum number of reservations that may be moved.
+     * @return The future number of reservations moved.
+     */
+    public CompletableFuture<Integer> repackRooms(String hotelName, int roomType, int maxMoves) {
+        return shardOf(hotelName).repackRooms(hotelName, roomType, maxMoves);
+    }
+
+    /**
+     * Runs any other change on the writer thread of the shard holding a hotel, e.g. holding a room.
+     *
+     * @param hotelName The name of the hotel.
+     * @param change The change, returning its status code.
+     * @return The future status code of the change.
+     */
+    public CompletableFuture<Integer> execute(String hotelName, ToIntFunction<HotelTracker> change) {
+        return shardOf(hotelName).execute(change);
+    }
+
+    /**
+     * Returns the latest published snapshot of a hotel, as HotelTracker.getHotelSnapshot.
+     *
+     * @param hotelName The name of the hotel.
+     * @return The immutable HotelSnapshot of the hotel, or null if not found.
+     */
+    public HotelSnapshot getHotelSnapshot(String hotelName) {
+        return shardOf(hotelName).getTracker().getHotelSnapshot(hotelName);
+    }
+
+    /**
+     * Displays the list of hotel names of every shard, shard by shard.
+     *
+     * @return An ArrayList of Strings containing the names of hotels. Returns null if no hotel names are found.
+     */
+    public ArrayList<String> displayHotelList() {
+        ArrayList<String> names = new ArrayList<String>();
+        for (BookingPipeline shard : shards) {
+            ArrayList<String> shardNames = shard.getTracker().displayHotelList();
+            if (shardNames != null) {
+                names.addAll(shardNames);
+            }
+        }
+        return names.isEmpty() ? null : names;
+    }
+
+    /**
+     * Returns the total earnings of every hotel in cents, from the latest published snapshots.
+     *
+     * @return The sum of the earnings of all hotels, in cents.
+     */
+    public long getTotalEarningsCents() {
+        long total = 0;
+        for (BookingPipeline shard : shards) {
+            HotelTracker tracker = shard.getTracker();
+            ArrayList<String> names = tracker.displayHotelList();
+            if (names == null) {
+                continue;
+            }
+            for (String name : names) {
+                HotelSnapshot snapshot = tracker.getHotelSnapshot(name);
+                if (snapshot != null) { // Null if the hotel was renamed or removed meanwhile
+                    total += snapshot.getEarningsCents();
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total earnings of every hotel, for display.
+     *
+     * @return The sum of the earnings of all hotels.
+     */
+    public double getTotalEarnings() {
+        return Money.toAmount(getTotalEarningsCents());
+    }
+
+    /**
+     * Searches every hotel for a free room of a type for a stay, as HotelTracker.searchAvailability.
+     * Each shard searches its own hotels on its writer thread, and the results are merged.
+     *
+     * Quoting reads the rates, occupancy, discounts and quote cache of a shard, which only its writer
+     * thread may touch, so a search holds up the bookings of every shard while that shard quotes its
+     * own hotels. The shards search in parallel, each quoting its hotels one after another rather
+     * than in the shared fork-join pool, so a shard waits only for its own hotels and not for the
+     * quotes of the other shards.
+     *
+     * Without ranking, the results are grouped by shard, in the order each shard's hotels were created.
+     *
+     * @param checkInDate The check-in date for the stay.
+     * @param checkOutDate The check-out date for the stay.
+     * @param roomType The type of room requested.
+     * @param discountCode The discount code to quote, or null to find the best discount in each hotel.
+     * @param limit The maximum number of results, or 0 for no limit.
+     * @param rankByPrice True to sort the results by quoted total.
+     * @return The future quotes of the hotels with a free room, or of null if the dates are invalid.
+     */
+    public CompletableFuture<ArrayList<Quote>> searchAvailability(int checkInDate, int checkOutDate, int roomType,
+            String discountCode, int limit, boolean rankByPrice) {
+        if (checkInDate >= checkOutDate || checkInDate <= 0 || checkOutDate > 31) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        ArrayList<CompletableFuture<ArrayList<Quote>>> parts = new ArrayList<CompletableFuture<ArrayList<Quote>>>();
+        for (BookingPipeline shard : shards) { // Each shard returns at most limit results of its own
+            parts.add(call(shard, tracker -> tracker.searchAvailability(checkInDate, checkOutDate, roomType,
+                    discountCode, limit, rankByPrice, false)));
+        }
+
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            ArrayList<Quote> results = new ArrayList<Quote>();
+            for (CompletableFuture<ArrayList<Quote>> part : parts) {
+                results.addAll(part.join());
+            }
+            if (rankByPrice) {
+                results.sort(Comparator.comparingLong(Quote::getTotalCents));
+            }
+            if (limit > 0 && results.size() > limit) {
+                results.subList(limit, results.size()).clear();
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Runs a query on the writer thread of a shard, so it does not race the shard's changes.
+     *
+     * @param <T> The type of the result.
+     * @param shard The shard to query.
+     * @param query The query.
+     * @return The future result of the query.
+     */
+    private <T> CompletableFuture<T> call(BookingPipeline shard, Function<HotelTracker, T> query) {
+        CompletableFuture<T> result = new CompletableFuture<T>();
+        shard.execute(tracker -> {
+            result.complete(query.apply(tracker));
+            return 0;
+        }).whenComplete((status, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+}
@@ -11,12 +11,22 @@ public class StandardRoom extends Room {
      * 
      * @param roomName The name of the room.
      * @param type The type of the room (should be 1 for StandardRoom).
-     * @param price The price of the room per night.
+     * @param price The price of the room per night, in cents.
      */
-    public StandardRoom(String roomName, int type, double price) {
+    public StandardRoom(String roomName, int type, long price) {
         super(roomName, type, price);
     }
 
+    /**
+     * Constructs a handle onto a Standard Room held by a RoomStore.
+     * 
+     * @param store The store holding the room.
+     * @param slot The slot of the room in the store.
+     */
+    StandardRoom(RoomStore store, int slot) {
+        super(store, slot);
+    }
+
     /**
      * Returns the type of the room.
      * 
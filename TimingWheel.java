@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+
+
+/**
+ * The TimingWheel class expires room holds with a hashed timing wheel.
+ * Time is divided into ticks, and each hold is placed in the bucket of its deadline tick modulo the
+ * number of buckets. Advancing the wheel only visits the buckets of the ticks that passed, so
+ * scheduling and cancelling a hold are constant time however many holds are outstanding,
+ * and no timer or thread is needed per hold.
+ */
+public class TimingWheel {
+
+    private final long tickMillis;
+    private final RoomHold[] buckets; // Head of the list of holds in each bucket
+    private final int mask;
+    private long currentTick;
+
+    /**
+     * Constructs a TimingWheel.
+     *
+     * @param tickMillis The length of a tick in milliseconds; holds expire with this precision.
+     * @param wheelSize The number of buckets, rounded up to a power of two.
+     * @param nowMillis The current time in milliseconds.
+     */
+    public TimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = new RoomHold[size];
+        this.mask = size - 1;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules a hold to expire at a given time.
+     *
+     * @param hold The hold to schedule.
+     * @param deadlineMillis The time in milliseconds at which the hold expires.
+     */
+    public void schedule(RoomHold hold, long deadlineMillis) {
+        // Round up so a hold never expires before its deadline, and never into a tick already processed
+        long deadlineTick = Math.max(currentTick + 1, (deadlineMillis + tickMillis - 1) / tickMillis);
+        hold.setDeadlineTick(deadlineTick);
+
+        int bucket = (int) (deadlineTick & mask);
+        hold.setNext(buckets[bucket]);
+        buckets[bucket] = hold;
+    }
+
+    /**
+     * Advances the wheel to the current time and collects the holds whose deadline passed.
+     * Inactive holds found on the way are dropped from their bucket.
+     *
+     * @param nowMillis The current time in milliseconds.
+     * @param expired The list the expired holds are added to.
+     */
+    public void advance(long nowMillis, ArrayList<RoomHold> expired) {
+        long nowTick = nowMillis / tickMillis;
+        if (nowTick <= currentTick) {
+            return;
+        }
+
+        // After a full turn every bucket has been visited, so later ticks add nothing
+        long firstTick = Math.max(currentTick + 1, nowTick - buckets.length + 1);
+        for (long tick = firstTick; tick <= nowTick; tick++) {
+            int bucket = (int) (tick & mask);
+            RoomHold previous = null;
+            RoomHold hold = buckets[bucket];
+
+            while (hold != null) {
+                RoomHold next = hold.getNext();
+                boolean due = hold.getDeadlineTick() <= nowTick;
+                if (!hold.isActive() || due) {
+                    if (previous == null) {
+                        buckets[bucket] = next;
+                    } else {
+                        previous.setNext(next);
+                    }
+                    hold.setNext(null);
+                    if (hold.isActive()) {
+                        expired.add(hold);
+                    }
+                } else {
+                    previous = hold; // Due in a later turn of the wheel
+                }
+                hold = next;
+            }
+        }
+        currentTick = nowTick;
+    }
+}
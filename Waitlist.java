@@ -0,0 +1,130 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+
+
+/**
+ * The Waitlist class holds the booking requests of a hotel that could not be booked yet.
+ * Requests are indexed by room type and check-in date, so when nights of a room become free only
+ * the requests that start inside the freed run of nights are looked at, not the whole waitlist.
+ */
+public class Waitlist {
+
+    private HashMap<Integer, ArrayList<ArrayList<WaitlistEntry>>> entriesByType; // Per type, one list per check-in date
+    private int size;
+    private long nextSequence;
+
+    /**
+     * Constructs an empty Waitlist.
+     */
+    public Waitlist() {
+        this.entriesByType = new HashMap<Integer, ArrayList<ArrayList<WaitlistEntry>>>();
+    }
+
+    /**
+     * Adds a request to the waitlist.
+     *
+     * @param guestName The name of the guest.
+     * @param checkInDate The requested check-in date (1-31).
+     * @param checkOutDate The requested check-out date (1-31).
+     * @param roomType The requested room type.
+     * @param discountCode The discount code to apply when the request is booked.
+     * @param priority The priority of the request; lower values are served first.
+     */
+    public void add(String guestName, int checkInDate, int checkOutDate, int roomType, String discountCode, int priority) {
+        ArrayList<ArrayList<WaitlistEntry>> byCheckIn = entriesByType.get(roomType);
+        if (byCheckIn == null) {
+            byCheckIn = new ArrayList<ArrayList<WaitlistEntry>>();
+            for (int day = 0; day < 31; day++) {
+                byCheckIn.add(new ArrayList<WaitlistEntry>());
+            }
+            entriesByType.put(roomType, byCheckIn);
+        }
+
+        byCheckIn.get(checkInDate - 1).add(new WaitlistEntry(guestName, checkInDate, checkOutDate, roomType,
+                discountCode, priority, nextSequence++));
+        size++;
+    }
+
+    /**
+     * Removes every request of a guest from the waitlist.
+     *
+     * @param guestName The name of the guest.
+     * @return The number of requests removed.
+     */
+    public int remove(String guestName) {
+        int removed = 0;
+        for (ArrayList<ArrayList<WaitlistEntry>> byCheckIn : entriesByType.values()) {
+            for (ArrayList<WaitlistEntry> entries : byCheckIn) {
+                for (int i = entries.size() - 1; i >= 0; i--) {
+                    if (entries.get(i).getGuestName().equals(guestName)) {
+                        entries.remove(i);
+                        removed++;
+                    }
+                }
+            }
+        }
+        size -= removed;
+        return removed;
+    }
+
+    /**
+     * Removes and returns the request served first among those of a room type that fit
+     * entirely in a run of free nights.
+     *
+     * @param roomType The room type of the free nights.
+     * @param runStart The first free night (inclusive).
+     * @param runEnd The end of the free nights (exclusive), i.e. the latest possible check-out date.
+     * @return The request with the lowest priority value that fits, or null if none fits.
+     */
+    public WaitlistEntry takeBest(int roomType, int runStart, int runEnd) {
+        ArrayList<ArrayList<WaitlistEntry>> byCheckIn = entriesByType.get(roomType);
+        if (byCheckIn == null) {
+            return null;
+        }
+
+        WaitlistEntry best = null;
+        ArrayList<WaitlistEntry> bestList = null;
+        for (int day = runStart; day < runEnd; day++) {
+            ArrayList<WaitlistEntry> entries = byCheckIn.get(day - 1);
+            for (int i = 0; i < entries.size(); i++) {
+                WaitlistEntry entry = entries.get(i);
+                if (entry.getCheckOutDate() <= runEnd && (best == null || entry.isBefore(best))) {
+                    best = entry;
+                    bestList = entries;
+                }
+            }
+        }
+
+        if (best != null) {
+            bestList.remove(best);
+            size--;
+        }
+        return best;
+    }
+
+    /**
+     * Removes every request from the waitlist.
+     */
+    public void clear() {
+        entriesByType.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the number of requests waiting.
+     *
+     * @return The size of the waitlist.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether no request is waiting.
+     *
+     * @return True if the waitlist is empty; false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * The WaitlistEntry class represents a booking request that is waiting for a room to become available.
+ */
+public class WaitlistEntry {
+    private final String guestName;
+    private final int checkInDate;
+    private final int checkOutDate;
+    private final int roomType;
+    private final String discountCode;
+    private final int priority;
+    private final long sequence;
+
+    /**
+     * Constructs a WaitlistEntry with the specified details.
+     *
+     * @param guestName The name of the guest.
+     * @param checkInDate The requested check-in date (1-31).
+     * @param checkOutDate The requested check-out date (1-31).
+     * @param roomType The requested room type.
+     * @param discountCode The discount code to apply when the request is booked.
+     * @param priority The priority of the request; lower values are served first.
+     * @param sequence The order in which the request joined; earlier requests win ties.
+     */
+    public WaitlistEntry(String guestName, int checkInDate, int checkOutDate, int roomType, String discountCode,
+            int priority, long sequence) {
+        this.guestName = guestName;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.roomType = roomType;
+        this.discountCode = discountCode;
+        this.priority = priority;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Returns the name of the guest.
+     *
+     * @return The guest's name.
+     */
+    public String getGuestName() {
+        return guestName;
+    }
+
+    /**
+     * Returns the requested check-in date.
+     *
+     * @return The check-in date (1-31).
+     */
+    public int getCheckInDate() {
+        return checkInDate;
+    }
+
+    /**
+     * Returns the requested check-out date.
+     *
+     * @return The check-out date (1-31).
+     */
+    public int getCheckOutDate() {
+        return checkOutDate;
+    }
+
+    /**
+     * Returns the requested room type.
+     *
+     * @return The room type.
+     */
+    public int getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Returns the discount code to apply when the request is booked.
+     *
+     * @return The discount code, may be null.
+     */
+    public String getDiscountCode() {
+        return discountCode;
+    }
+
+    /**
+     * Returns the priority of the request.
+     *
+     * @return The priority; lower values are served first.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Checks whether this request should be served before another one.
+     *
+     * @param other The other request.
+     * @return True if this request has a lower priority value, or the same priority and joined earlier.
+     */
+    public boolean isBefore(WaitlistEntry other) {
+        if (priority != other.priority) {
+            return priority < other.priority;
+        }
+        return sequence < other.sequence;
+    }
+}